@@ -1,9 +1,24 @@
 package com.openclassrooms.starterjwt.controllers;
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionFilter;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.payload.response.BulkSessionResult;
+import com.openclassrooms.starterjwt.payload.response.CalendarDayResponse;
+import com.openclassrooms.starterjwt.payload.response.SessionSearchResponse;
+import com.openclassrooms.starterjwt.payload.response.WaitlistPositionResponse;
+import com.openclassrooms.starterjwt.services.SessionBulkService;
+import com.openclassrooms.starterjwt.services.SessionDtoCache;
+import com.openclassrooms.starterjwt.services.SessionEventBroadcaster;
+import com.openclassrooms.starterjwt.services.SessionSearchService;
 import com.openclassrooms.starterjwt.services.SessionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,29 +27,103 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/session")
 @RequiredArgsConstructor
 public class SessionController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     private final SessionService sessionService;
+    private final SessionEventBroadcaster sessionEventBroadcaster;
+    private final SessionDtoCache sessionDtoCache;
+    private final SessionSearchService sessionSearchService;
+    private final SessionBulkService sessionBulkService;
+
+    /**
+     * Pushes committed session changes so that clients no longer need to poll the list.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return sessionEventBroadcaster.subscribe();
+    }
+
+    /**
+     * Sessions matching the words of {@code q} in their name or description, best match first.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<SessionSearchResponse>> search(@RequestParam("q") String query,
+                                                              @RequestParam(name = "page", defaultValue = "0") int page,
+                                                              @RequestParam(name = "size", required = false) Integer size) {
+        SessionSearchService.SearchPage result = sessionSearchService.search(query, page, size);
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(result.total()))
+                .body(result.hits());
+    }
+
+    /**
+     * Sessions of the visible days, grouped by day, e.g. for a week or month view.
+     */
+    @GetMapping("/calendar")
+    public ResponseEntity<List<CalendarDayResponse>> calendar(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "teacher", required = false) Long teacherId) {
+        return ResponseEntity.ok(sessionService.findCalendar(from, to, teacherId));
+    }
 
     @GetMapping("/{id}")
-    public ResponseEntity<SessionDto> findById(@PathVariable("id") String id) {
+    public ResponseEntity<SessionDto> findById(@PathVariable("id") String id, WebRequest request) {
         Long sessionId = Long.parseLong(id);
-        SessionDto sessionDto = sessionService.toDto(sessionService.getById(sessionId));
-        return ResponseEntity.ok(sessionDto);
+        long generation = sessionDtoCache.generation();
+        SessionDtoCache.CachedSession cached = sessionDtoCache.findSession(sessionId);
+        if (cached == null && request.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+            // Nothing to compare: the ETag comes with the session instead of a separate read
+            Session session = sessionService.getById(sessionId);
+            cached = new SessionDtoCache.CachedSession(sessionService.eTagOf(session), sessionService.toDto(session));
+            sessionDtoCache.putSession(sessionId, cached, generation);
+        }
+        // On a miss, answered from the revision alone when the client copy is current
+        String eTag = cached != null ? cached.eTag() : sessionService.findETag(sessionId)
+                .orElseThrow(() -> new NotFoundException("Session not found"));
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        if (cached == null) {
+            cached = new SessionDtoCache.CachedSession(eTag, sessionService.toDto(sessionService.getById(sessionId)));
+            sessionDtoCache.putSession(sessionId, cached, generation);
+        }
+        return ResponseEntity.ok(cached.session());
     }
 
     @GetMapping
-    public ResponseEntity<List<SessionDto>> findAll() {
-        List<SessionDto> sessionDtos = sessionService.findAll().stream()
-                .map(sessionService::toDto)
-                .collect(java.util.stream.Collectors.toList());
-        return ResponseEntity.ok(sessionDtos);
+    public ResponseEntity<List<SessionDto>> findAll(SessionFilter filter, WebRequest request) {
+        long generation = sessionDtoCache.generation();
+        SessionDtoCache.CachedPage cached = sessionDtoCache.findPage(filter);
+        String eTag = cached != null ? cached.eTag() : sessionService.getCollectionETag(filter);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        if (cached == null) {
+            cached = loadPage(filter, eTag);
+            sessionDtoCache.putPage(filter, cached, generation);
+        }
+
+        // The body stays a plain array; the position of the next page travels in a header
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (cached.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, cached.nextCursor());
+        }
+        return response.body(cached.sessions());
     }
 
     @PostMapping
@@ -45,6 +134,17 @@ public class SessionController {
         return ResponseEntity.ok(createdSession);
     }
 
+    /**
+     * Creates or updates up to {@code oc.app.sessionBulkMaxItems} sessions at once. Answers 400 with
+     * the per-session results, and writes nothing, when any session is invalid.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<List<BulkSessionResult>> bulk(@RequestBody List<SessionDto> sessionDtos) {
+        List<BulkSessionResult> results = sessionBulkService.save(sessionDtos);
+        boolean applied = results.stream().noneMatch(result -> result.getStatus() == BulkSessionResult.Status.INVALID);
+        return ResponseEntity.status(applied ? HttpStatus.OK : HttpStatus.BAD_REQUEST).body(results);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<SessionDto> update(@PathVariable("id") String id, @Valid @RequestBody SessionDto sessionDto) {
         Long sessionId = Long.parseLong(id);
@@ -76,4 +176,41 @@ public class SessionController {
         sessionService.noLongerParticipate(sessionId, user);
         return ResponseEntity.ok().build();
     }
+
+    @DeleteMapping("/{id}/participate")
+    public ResponseEntity<Void> noLongerParticipate(@PathVariable("id") String id, @RequestParam("userIds") List<Long> userIds) {
+        Long sessionId = Long.parseLong(id);
+        sessionService.noLongerParticipate(sessionId, userIds);
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/{id}/waitlist/{userId}")
+    public ResponseEntity<WaitlistPositionResponse> joinWaitlist(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        Long sessionId = Long.parseLong(id);
+        Long user = Long.parseLong(userId);
+        return ResponseEntity.ok(new WaitlistPositionResponse(sessionService.joinWaitlist(sessionId, user)));
+    }
+
+    @GetMapping("/{id}/waitlist/{userId}")
+    public ResponseEntity<WaitlistPositionResponse> getWaitlistPosition(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        Long sessionId = Long.parseLong(id);
+        Long user = Long.parseLong(userId);
+        return ResponseEntity.ok(new WaitlistPositionResponse(sessionService.getWaitlistPosition(sessionId, user)));
+    }
+
+    @DeleteMapping("/{id}/waitlist/{userId}")
+    public ResponseEntity<Void> leaveWaitlist(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        Long sessionId = Long.parseLong(id);
+        Long user = Long.parseLong(userId);
+        sessionService.leaveWaitlist(sessionId, user);
+        return ResponseEntity.ok().build();
+    }
+
+    private SessionDtoCache.CachedPage loadPage(SessionFilter filter, String eTag) {
+        SessionService.SessionPage page = sessionService.findPage(filter);
+        List<SessionDto> sessionDtos = page.sessions().stream()
+                .map(session -> sessionService.toDto(session, page.participantIds().get(session.getId())))
+                .collect(Collectors.toUnmodifiableList());
+        return new SessionDtoCache.CachedPage(eTag, sessionDtos, page.nextCursor());
+    }
 }
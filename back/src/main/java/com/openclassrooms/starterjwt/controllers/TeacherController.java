@@ -2,15 +2,16 @@ package com.openclassrooms.starterjwt.controllers;
 
 import com.openclassrooms.starterjwt.dto.TeacherDto;
 import com.openclassrooms.starterjwt.mapper.TeacherMapper;
+import com.openclassrooms.starterjwt.services.TeacherDirectory;
 import com.openclassrooms.starterjwt.services.TeacherService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/teacher")
@@ -18,6 +19,7 @@ import java.util.List;
 public class TeacherController {
     private final TeacherMapper teacherMapper;
     private final TeacherService teacherService;
+    private final TeacherDirectory teacherDirectory;
 
     @GetMapping("/{id}")
     public ResponseEntity<TeacherDto> findById(@PathVariable("id") String id) {
@@ -26,9 +28,17 @@ public class TeacherController {
         return ResponseEntity.ok(teacherDto);
     }
 
+    /**
+     * Writes the JSON serialised with the current directory snapshot.
+     */
     @GetMapping
-    public ResponseEntity<List<TeacherDto>> findAll() {
-        List<TeacherDto> teacherDtos = teacherMapper.toDto(teacherService.findAll());
-        return ResponseEntity.ok(teacherDtos);
+    public ResponseEntity<byte[]> findAll(WebRequest request) {
+        TeacherDirectory.Snapshot snapshot = teacherDirectory.snapshot();
+        if (request.checkNotModified(snapshot.eTag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.json());
     }
 }
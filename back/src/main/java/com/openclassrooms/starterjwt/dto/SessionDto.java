@@ -2,6 +2,7 @@ package com.openclassrooms.starterjwt.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -31,6 +32,9 @@ public class SessionDto {
     @Size(max = 2500)
     private String description;
 
+    @Positive
+    private Integer maxParticipants;
+
     private List<Long> users;
 
     private LocalDateTime createdAt;
@@ -10,6 +10,8 @@ public interface SessionMapper extends EntityMapper<SessionDto, Session> {
 
     @Mapping(target = "teacher", ignore = true)
     @Mapping(target = "users", ignore = true)
+    @Mapping(target = "participantCount", ignore = true)
+    @Mapping(target = "revision", ignore = true)
     @Mapping(source = "name", target = "name")
     @Mapping(source = "date", target = "date")
     @Mapping(source = "description", target = "description")
@@ -1,6 +1,6 @@
 package com.openclassrooms.starterjwt.models;
 
-
+import com.openclassrooms.starterjwt.services.SessionSearchListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
@@ -8,13 +8,16 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
-import jakarta.persistence.OneToOne;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -29,21 +32,27 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
 import java.util.Date;
-import java.util.List;
+import java.util.Set;
 
 @Entity
-@Table(name = "sessions")
-@EntityListeners(AuditingEntityListener.class)
+@Table(name = "sessions", indexes = {
+        @Index(name = "ix_sessions_date_id", columnList = "date, id"),
+        @Index(name = "ix_sessions_date_teacher_id", columnList = "date, teacher_id"),
+        @Index(name = "ix_sessions_teacher_id", columnList = "teacher_id")
+})
+@EntityListeners({AuditingEntityListener.class, SessionSearchListener.class})
 @Data
 @Accessors(chain = true)
 @EqualsAndHashCode(of = {"id"})
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@ToString
+@ToString(exclude = {"teacher", "users"})
 public class Session {
+    // Pooled ids, handed out by blocks of 50: identity columns would force one insert at a time
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sessions_seq")
+    @SequenceGenerator(name = "sessions_seq", sequenceName = "sessions_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -60,16 +69,31 @@ public class Session {
     @Column(nullable = false)
     private String description;
 
-    @OneToOne
+    // Null means no limit
+    @Positive
+    private Integer maxParticipants;
+
+    // Seat counter maintained by the booking statements; never written through the entity
+    @Column(insertable = false, updatable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private int participantCount;
+
+    // Bumped by every statement that changes the session or its participants; used for ETags
+    @Column(insertable = false, updatable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private long revision;
+
+    // Many sessions share a teacher; loaded on demand, list reads fetch it with a join
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "teacher_id", referencedColumnName = "id")
     private Teacher teacher;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    // Loaded on demand; reads only need the ids, which are selected from the join table.
+    // Mapped as a set, so the join table is keyed on (session_id, user_id).
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "PARTICIPATE",
             joinColumns = @JoinColumn(name = "session_id"),
             inverseJoinColumns = @JoinColumn(name = "user_id"))
-    private List<User> users;
+    private Set<User> users;
 
     @CreatedDate
     @Column(updatable = false, columnDefinition="TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
@@ -0,0 +1,27 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BulkSessionResult {
+    // Position of the session in the request
+    private int index;
+
+    private Long id;
+
+    private Status status;
+
+    private List<String> errors;
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        INVALID,
+        // Valid, but not written because another session of the request is invalid
+        SKIPPED
+    }
+}
@@ -0,0 +1,16 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CalendarDayResponse {
+    private LocalDate day;
+
+    // In start order
+    private List<CalendarSessionResponse> sessions;
+}
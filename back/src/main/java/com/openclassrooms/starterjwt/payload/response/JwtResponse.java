@@ -15,6 +15,8 @@ public class JwtResponse {
 
     private Boolean admin;
 
+    private String refreshToken;
+
     public JwtResponse(String accessToken, Long id, String username, String firstName, String lastName, Boolean admin) {
         this.token = accessToken;
         this.id = id;
@@ -0,0 +1,26 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+@AllArgsConstructor
+public class SessionSearchResponse {
+    private Long id;
+
+    private String name;
+
+    private Date date;
+
+    private Long teacher_id;
+
+    private double score;
+
+    // HTML-escaped, with the matched words wrapped in <mark>
+    private String highlightedName;
+
+    // HTML-escaped excerpt of the description around the first match
+    private String highlightedDescription;
+}
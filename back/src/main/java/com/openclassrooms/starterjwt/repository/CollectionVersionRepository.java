@@ -0,0 +1,26 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.CollectionVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface CollectionVersionRepository extends JpaRepository<CollectionVersion, String> {
+    @Query("select v.version from CollectionVersion v where v.name = :name")
+    Optional<Long> findVersion(@Param("name") String name);
+
+    /**
+     * Increments the version. The row stays locked until the surrounding transaction commits,
+     * so callers run it as their last statement.
+     */
+    @Transactional
+    @Modifying
+    @Query("update CollectionVersion v set v.version = v.version + 1 where v.name = :name")
+    int bump(@Param("name") String name);
+}
@@ -1,9 +1,162 @@
 package com.openclassrooms.starterjwt.repository;
 
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.payload.response.CalendarSessionResponse;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SessionRepository extends JpaRepository<Session, Long> {
+    /**
+     * Sessions ordered by (date, id), starting strictly after the given position.
+     * Null parameters disable the corresponding filter.
+     */
+    @Query("select s from Session s left join fetch s.teacher " +
+            "where (:teacherId is null or s.teacher.id = :teacherId) " +
+            "and (:from is null or s.date >= :from) " +
+            "and (:to is null or s.date < :to) " +
+            "and (:afterDate is null or s.date > :afterDate or (s.date = :afterDate and s.id > :afterId)) " +
+            "order by s.date asc, s.id asc")
+    List<Session> findPage(@Param("teacherId") Long teacherId,
+                           @Param("from") Date from,
+                           @Param("to") Date to,
+                           @Param("afterDate") Date afterDate,
+                           @Param("afterId") Long afterId,
+                           Limit limit);
+
+    /**
+     * Calendar entries of the sessions in [from, to), in date order, read from the (date, teacher_id)
+     * index and the rows it points to, without joining the teacher.
+     */
+    @Query("select new com.openclassrooms.starterjwt.payload.response.CalendarSessionResponse(" +
+            "s.id, s.name, s.date, s.teacher.id, s.participantCount, s.maxParticipants) from Session s " +
+            "where s.date >= :from and s.date < :to " +
+            "and (:teacherId is null or s.teacher.id = :teacherId) " +
+            "order by s.date asc, s.id asc")
+    List<CalendarSessionResponse> findCalendar(@Param("from") Date from,
+                                               @Param("to") Date to,
+                                               @Param("teacherId") Long teacherId);
+
+    /**
+     * (session_id, user_id) pairs of the given sessions, read from the join table without loading users.
+     */
+    @Query(value = "select session_id, user_id from participate where session_id in (:ids) " +
+            "order by session_id, user_id", nativeQuery = true)
+    List<Object[]> findParticipantIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select s from Session s left join fetch s.teacher where s.id = :id")
+    Optional<Session> findWithTeacherById(@Param("id") Long id);
+
+    @Query("select s.revision from Session s where s.id = :id")
+    Optional<Long> findRevisionById(@Param("id") Long id);
+
+    @Query("select min(s.date) from Session s where s.date >= :now")
+    Date findNextStart(@Param("now") Date now);
+
+    /**
+     * Takes a seat when the session is not full. Returns 0 when the session does not exist or is full.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "update sessions set participant_count = participant_count + 1, revision = revision + 1 " +
+            "where id = :id " +
+            "and (max_participants is null or participant_count < max_participants)", nativeQuery = true)
+    int reserveSeat(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update sessions set participant_count = participant_count + :count, revision = revision + 1 " +
+            "where id = :id", nativeQuery = true)
+    int takeSeats(@Param("id") Long id, @Param("count") int count);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update sessions set participant_count = greatest(participant_count - :count, 0), " +
+            "revision = revision + 1 where id = :id", nativeQuery = true)
+    int releaseSeats(@Param("id") Long id, @Param("count") int count);
+
+    /**
+     * Locks the session row until the end of the transaction and returns its free seats,
+     * Integer.MAX_VALUE minus the participants when there is no limit, or null when the session does not exist.
+     */
+    @Query(value = "select coalesce(max_participants, 2147483647) - participant_count from sessions " +
+            "where id = :id for update", nativeQuery = true)
+    Integer lockFreeSeats(@Param("id") Long id);
+
+    /**
+     * Recomputes the seat counter after the participants were rewritten through the entity.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "update sessions set participant_count = " +
+            "(select count(*) from participate p where p.session_id = :id), revision = revision + 1 " +
+            "where id = :id", nativeQuery = true)
+    int syncParticipantCount(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update sessions s set participant_count = " +
+            "(select count(*) from participate p where p.session_id = s.id), revision = revision + 1 " +
+            "where s.id in (:ids)", nativeQuery = true)
+    int syncParticipantCounts(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "select count(*) from participate where session_id = :sessionId and user_id = :userId",
+            nativeQuery = true)
+    long countParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    /**
+     * Adds the user to the session. Returns 0 when the session or the user does not exist,
+     * or when the user already participates.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into participate (session_id, user_id) " +
+            "select s.id, u.id from sessions s, users u where s.id = :sessionId and u.id = :userId " +
+            "and not exists (select 1 from participate p where p.session_id = :sessionId and p.user_id = :userId)",
+            nativeQuery = true)
+    int addParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from participate where session_id = :sessionId and user_id in (:userIds)", nativeQuery = true)
+    int removeParticipants(@Param("sessionId") Long sessionId, @Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Copies the given waitlist entries into the participants, skipping users who already participate.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into participate (session_id, user_id) " +
+            "select w.session_id, w.user_id from waitlist_entries w where w.id in (:entryIds) " +
+            "and not exists (select 1 from participate p where p.session_id = w.session_id and p.user_id = w.user_id)",
+            nativeQuery = true)
+    int addWaitlisted(@Param("entryIds") Collection<Long> entryIds);
+
+    @Query("select s from Session s left join fetch s.teacher left join fetch s.users where s.id = :id")
+    Optional<Session> findDetailedById(@Param("id") Long id);
+
+    /**
+     * Ranked matches of the FULLTEXT index on (name, description). MySQL only.
+     */
+    @Query(value = "select id, match(name, description) against (:query in natural language mode) as score " +
+            "from sessions where match(name, description) against (:query in natural language mode) " +
+            "order by score desc, id limit :limit offset :offset", nativeQuery = true)
+    List<Object[]> searchFullText(@Param("query") String query, @Param("limit") int limit, @Param("offset") int offset);
+
+    @Query(value = "select count(*) from sessions where match(name, description) against (:query in natural language mode)",
+            nativeQuery = true)
+    long countFullText(@Param("query") String query);
+
+    @Query("select s.id, s.name, s.description from Session s")
+    List<Object[]> findSearchableText();
 }
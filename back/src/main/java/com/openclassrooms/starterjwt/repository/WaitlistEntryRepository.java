@@ -0,0 +1,50 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+    @Query("select e.id from WaitlistEntry e where e.session.id = :sessionId and e.user.id = :userId")
+    Optional<Long> findIdBySessionIdAndUserId(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    /**
+     * Number of entries ahead of the given one, counted on the (session_id, id) index.
+     */
+    @Query("select count(e) from WaitlistEntry e where e.session.id = :sessionId and e.id < :id")
+    long countAhead(@Param("sessionId") Long sessionId, @Param("id") Long id);
+
+    @Query("select e.id from WaitlistEntry e where e.session.id = :sessionId order by e.id asc")
+    List<Long> findHeadIds(@Param("sessionId") Long sessionId, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("delete from WaitlistEntry e where e.session.id = :sessionId and e.user.id = :userId")
+    int deleteBySessionIdAndUserId(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    /**
+     * Removes the entries of users who became participants when the participant list was replaced.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "delete from waitlist_entries where session_id in (:sessionIds) " +
+            "and exists (select 1 from participate p " +
+            "where p.session_id = waitlist_entries.session_id and p.user_id = waitlist_entries.user_id)",
+            nativeQuery = true)
+    int deleteEnrolled(@Param("sessionIds") Collection<Long> sessionIds);
+
+    @Transactional
+    @Modifying
+    @Query("delete from WaitlistEntry e where e.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
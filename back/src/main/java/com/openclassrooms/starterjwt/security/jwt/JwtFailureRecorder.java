@@ -0,0 +1,85 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts rejected tokens by reason and logs at most one line per reason and interval,
+ * reporting how many similar failures were suppressed in between. A wave of stale
+ * tokens therefore costs a counter increment per request instead of a log line.
+ */
+@Slf4j
+@Component
+public class JwtFailureRecorder {
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Reason {
+        EMPTY("JWT claims string is empty"),
+        MALFORMED("Invalid JWT token"),
+        EXPIRED("JWT token is expired"),
+        INVALID_SIGNATURE("Invalid JWT signature"),
+        UNSUPPORTED("JWT token is unsupported"),
+        AUTHENTICATION_FAILED("Cannot set user authentication");
+
+        private final String message;
+    }
+
+    private final Map<Reason, Counter> counters = new EnumMap<>(Reason.class);
+    private final Map<Reason, Window> windows = new EnumMap<>(Reason.class);
+    private final long logIntervalMs;
+
+    public JwtFailureRecorder(MeterRegistry meterRegistry,
+                              @Value("${oc.app.jwtFailureLogIntervalMs:10000}") long logIntervalMs) {
+        this.logIntervalMs = logIntervalMs;
+        for (Reason reason : Reason.values()) {
+            counters.put(reason, Counter.builder("auth.jwt.rejected")
+                    .description("Bearer tokens that did not authenticate a request")
+                    .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+            windows.put(reason, new Window());
+        }
+    }
+
+    public void record(Reason reason, String detail) {
+        record(reason, detail, System.currentTimeMillis());
+    }
+
+    void record(Reason reason, String detail, long nowMillis) {
+        counters.get(reason).increment();
+
+        long suppressed = windows.get(reason).tryAcquire(nowMillis, logIntervalMs);
+        if (suppressed == 0) {
+            log.warn("{}: {}", reason.getMessage(), detail);
+        } else if (suppressed > 0) {
+            log.warn("{}: {} ({} similar failures suppressed)", reason.getMessage(), detail, suppressed);
+        }
+    }
+
+    private static final class Window {
+        private final AtomicLong nextLogAt = new AtomicLong();
+        private final AtomicLong suppressed = new AtomicLong();
+
+        /**
+         * @return the number of failures suppressed since the last logged one, or -1 when this one must not be logged
+         */
+        long tryAcquire(long now, long intervalMs) {
+            long next = nextLogAt.get();
+            if (now >= next && nextLogAt.compareAndSet(next, now + intervalMs)) {
+                return suppressed.getAndSet(0);
+            }
+            suppressed.incrementAndGet();
+            return -1;
+        }
+    }
+}
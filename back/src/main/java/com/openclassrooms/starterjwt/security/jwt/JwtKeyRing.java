@@ -0,0 +1,150 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * HMAC signing keys, derived once and shared by every token operation.
+ * <p>
+ * The key built from {@code oc.app.jwtSecret} is always present under {@code oc.app.jwtKeyId}. Extra keys can be
+ * listed in the optional {@code oc.app.jwtKeyFile} (properties format: {@code <kid>=<base64 secret>}, plus
+ * {@code active=<kid>}), which is re-read periodically so keys can be rotated without a restart. Tokens are
+ * signed with the active key and carry its id in the {@code kid} header; any key of the ring verifies them.
+ */
+@Slf4j
+@Component
+public class JwtKeyRing {
+    private static final String ACTIVE_ENTRY = "active";
+
+    private final String defaultKeyId;
+    private final SecretKey defaultKey;
+    private final Path keyFile;
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public JwtKeyRing(@Value("${oc.app.jwtSecret}") String jwtSecret,
+                      @Value("${oc.app.jwtKeyId:primary}") String jwtKeyId,
+                      @Value("${oc.app.jwtKeyFile:}") String jwtKeyFile) {
+        this.defaultKeyId = jwtKeyId;
+        this.defaultKey = hmacKey(jwtSecret);
+        this.keyFile = StringUtils.hasText(jwtKeyFile) ? Path.of(jwtKeyFile) : null;
+        this.snapshot = new Snapshot(jwtKeyId, Map.of(jwtKeyId, defaultKey), jwtKeyId);
+        reload();
+    }
+
+    public JwtKeyRing(String jwtSecret, String jwtKeyId) {
+        this(jwtSecret, jwtKeyId, "");
+    }
+
+    /** Thread-safe parser verifying against every key of the ring. */
+    public JwtParser parser() {
+        return snapshot.parser;
+    }
+
+    public String activeKeyId() {
+        return snapshot.activeKeyId;
+    }
+
+    public SecretKey activeKey() {
+        return snapshot.keys.get(snapshot.activeKeyId);
+    }
+
+    /**
+     * Adds (or replaces) a key and makes it the signing key. Previous keys keep verifying tokens until retired.
+     */
+    public synchronized void rotate(String keyId, String secret) {
+        Map<String, SecretKey> keys = new HashMap<>(snapshot.keys);
+        keys.put(keyId, hmacKey(secret));
+        snapshot = new Snapshot(keyId, keys, defaultKeyId);
+    }
+
+    public synchronized void retire(String keyId) {
+        if (keyId.equals(snapshot.activeKeyId)) {
+            throw new IllegalArgumentException("Cannot retire the active signing key: " + keyId);
+        }
+        Map<String, SecretKey> keys = new HashMap<>(snapshot.keys);
+        keys.remove(keyId);
+        snapshot = new Snapshot(snapshot.activeKeyId, keys, defaultKeyId);
+    }
+
+    @Scheduled(fixedDelayString = "${oc.app.jwtKeyFileRefreshMs:60000}")
+    public synchronized void reload() {
+        if (keyFile == null || !Files.isReadable(keyFile)) {
+            return;
+        }
+        Properties entries = new Properties();
+        try (Reader reader = Files.newBufferedReader(keyFile)) {
+            entries.load(reader);
+        } catch (IOException e) {
+            log.warn("Cannot read JWT key file {}: {}", keyFile, e.getMessage());
+            return;
+        }
+
+        Map<String, SecretKey> keys = new HashMap<>();
+        keys.put(defaultKeyId, defaultKey);
+        for (String keyId : entries.stringPropertyNames()) {
+            if (!ACTIVE_ENTRY.equals(keyId)) {
+                keys.put(keyId, hmacKey(entries.getProperty(keyId)));
+            }
+        }
+        String activeKeyId = entries.getProperty(ACTIVE_ENTRY, defaultKeyId);
+        if (!keys.containsKey(activeKeyId)) {
+            log.warn("JWT key file {} names unknown active key {}, keeping {}", keyFile, activeKeyId, snapshot.activeKeyId);
+            return;
+        }
+        if (!keys.equals(snapshot.keys) || !activeKeyId.equals(snapshot.activeKeyId)) {
+            snapshot = new Snapshot(activeKeyId, keys, defaultKeyId);
+            log.info("JWT key ring reloaded: {} keys, active key {}", keys.size(), activeKeyId);
+        }
+    }
+
+    private static SecretKey hmacKey(String base64Secret) {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret.trim()));
+    }
+
+    private static final class Snapshot {
+        private final String activeKeyId;
+        private final Map<String, SecretKey> keys;
+        private final JwtParser parser;
+
+        private Snapshot(String activeKeyId, Map<String, SecretKey> keys, String defaultKeyId) {
+            this.activeKeyId = activeKeyId;
+            this.keys = Map.copyOf(keys);
+            this.parser = Jwts.parser()
+                    .keyLocator(new LocatorAdapter<Key>() {
+                        @Override
+                        protected Key locate(JwsHeader header) {
+                            // Tokens issued before key ids were introduced have no kid
+                            String keyId = header.getKeyId() != null ? header.getKeyId() : defaultKeyId;
+                            Key key = Snapshot.this.keys.get(keyId);
+                            if (key == null) {
+                                throw new SignatureException("Unknown JWT signing key: " + keyId);
+                            }
+                            return key;
+                        }
+                    })
+                    .build();
+        }
+    }
+}
@@ -1,59 +1,186 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
+import com.openclassrooms.starterjwt.security.jwt.JwtFailureRecorder.Reason;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.SignatureException;
 import io.jsonwebtoken.UnsupportedJwtException;
-import lombok.extern.slf4j.Slf4j;
+import io.jsonwebtoken.security.SignatureException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
 
-@Slf4j
 @Component
 public class JwtUtils {
-    @Value("${oc.app.jwtSecret}")
-    private String jwtSecret;
+    static final String CLAIM_ID = "id";
+    static final String CLAIM_FIRST_NAME = "firstName";
+    static final String CLAIM_LAST_NAME = "lastName";
+    static final String CLAIM_ADMIN = "admin";
+
+    private final JwtKeyRing keyRing;
+    private final JwtFailureRecorder failureRecorder;
 
     @Value("${oc.app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
+    public JwtUtils(JwtKeyRing keyRing, JwtFailureRecorder failureRecorder) {
+        this.keyRing = keyRing;
+        this.failureRecorder = failureRecorder;
+    }
+
     public String generateJwtToken(Authentication authentication) {
+        return generateJwtToken((UserDetailsImpl) authentication.getPrincipal());
+    }
 
-        UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
+    public String generateJwtToken(UserDetailsImpl userPrincipal) {
+        Date now = new Date();
 
         return Jwts.builder()
-                .setSubject((userPrincipal.getUsername()))
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .header().keyId(keyRing.activeKeyId()).and()
+                .id(UUID.randomUUID().toString())
+                .subject(userPrincipal.getUsername())
+                .claim(CLAIM_ID, userPrincipal.getId())
+                .claim(CLAIM_FIRST_NAME, userPrincipal.getFirstName())
+                .claim(CLAIM_LAST_NAME, userPrincipal.getLastName())
+                .claim(CLAIM_ADMIN, userPrincipal.getAdmin())
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + jwtExpirationMs))
+                .signWith(keyRing.activeKey(), Jwts.SIG.HS512)
                 .compact();
     }
 
+    /**
+     * Rebuilds the principal from the identity claims embedded by {@link #generateJwtToken(Authentication)}.
+     *
+     * @return the principal, or {@code null} for tokens issued without identity claims
+     */
+    public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+        Object id = claims.get(CLAIM_ID);
+        if (!(id instanceof Number)) {
+            return null;
+        }
+        return UserDetailsImpl.builder()
+                .id(((Number) id).longValue())
+                .username(claims.getSubject())
+                .firstName(claims.get(CLAIM_FIRST_NAME, String.class))
+                .lastName(claims.get(CLAIM_LAST_NAME, String.class))
+                .admin(Boolean.TRUE.equals(claims.get(CLAIM_ADMIN, Boolean.class)))
+                .build();
+    }
+
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser().setSigningKey(jwtSecret).build().parseClaimsJws(token).getBody().getSubject();
+        return keyRing.parser().parseSignedClaims(token).getPayload().getSubject();
     }
 
     public boolean validateJwtToken(String authToken) {
+        return getVerifiedClaims(authToken) != null;
+    }
+
+    /**
+     * Verifies the token signature and expiration, then returns its claims.
+     *
+     * @return the verified claims, or {@code null} when the token is not valid
+     */
+    public Claims getVerifiedClaims(String authToken) {
+        // Cheap checks first: stale or garbage tokens never reach the parser and its exceptions
+        Reason rejection = precheck(authToken, System.currentTimeMillis());
+        if (rejection != null) {
+            failureRecorder.record(rejection, "rejected before signature check");
+            return null;
+        }
         try {
-            Jwts.parser().setSigningKey(jwtSecret).build().parseClaimsJws(authToken);
-            return true;
+            return keyRing.parser().parseSignedClaims(authToken).getPayload();
         } catch (SignatureException e) {
-            log.error("Invalid JWT signature: {}", e.getMessage());
+            failureRecorder.record(Reason.INVALID_SIGNATURE, e.getMessage());
         } catch (MalformedJwtException e) {
-            log.error("Invalid JWT token: {}", e.getMessage());
+            failureRecorder.record(Reason.MALFORMED, e.getMessage());
         } catch (ExpiredJwtException e) {
-            log.error("JWT token is expired: {}", e.getMessage());
+            failureRecorder.record(Reason.EXPIRED, e.getMessage());
         } catch (UnsupportedJwtException e) {
-            log.error("JWT token is unsupported: {}", e.getMessage());
+            failureRecorder.record(Reason.UNSUPPORTED, e.getMessage());
         } catch (IllegalArgumentException e) {
-            log.error("JWT claims string is empty: {}", e.getMessage());
+            failureRecorder.record(Reason.EMPTY, e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Checks the compact form, the base64url alphabet and the {@code exp} claim without
+     * verifying the signature.
+     *
+     * @return the reason the token can be rejected right away, or {@code null} when it needs a full check
+     */
+    static Reason precheck(String token, long nowMillis) {
+        if (token == null || token.isBlank()) {
+            return Reason.EMPTY;
+        }
+        int first = token.indexOf('.');
+        int second = first < 0 ? -1 : token.indexOf('.', first + 1);
+        if (first <= 0 || second <= first + 1 || second == token.length() - 1 || token.indexOf('.', second + 1) >= 0) {
+            return Reason.MALFORMED;
+        }
+        if (!isBase64Url(token, 0, first) || !isBase64Url(token, first + 1, second)
+                || !isBase64Url(token, second + 1, token.length())) {
+            return Reason.MALFORMED;
+        }
+
+        byte[] payload;
+        try {
+            payload = Base64.getUrlDecoder().decode(token.substring(first + 1, second));
+        } catch (IllegalArgumentException e) {
+            return Reason.MALFORMED;
+        }
+        long expiration = peekExpiration(new String(payload, StandardCharsets.UTF_8));
+        if (expiration >= 0 && nowMillis > expiration * 1000) {
+            return Reason.EXPIRED;
+        }
+        return null;
+    }
+
+    private static boolean isBase64Url(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            boolean valid = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_';
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Reads the numeric "exp" member without a JSON parser, -1 when absent or not a plain number
+    private static long peekExpiration(String json) {
+        int key = json.indexOf("\"exp\"");
+        if (key < 0) {
+            return -1;
+        }
+        int i = skipWhitespace(json, key + 5);
+        if (i >= json.length() || json.charAt(i) != ':') {
+            return -1;
+        }
+        i = skipWhitespace(json, i + 1);
+        long value = 0;
+        int digits = 0;
+        while (i < json.length() && Character.isDigit(json.charAt(i)) && digits < 18) {
+            value = value * 10 + (json.charAt(i++) - '0');
+            digits++;
+        }
+        return digits > 0 ? value : -1;
+    }
+
+    private static int skipWhitespace(String json, int from) {
+        int i = from;
+        while (i < json.length() && Character.isWhitespace(json.charAt(i))) {
+            i++;
         }
-        return false;
+        return i;
     }
 }
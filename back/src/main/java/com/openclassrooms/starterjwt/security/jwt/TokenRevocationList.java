@@ -0,0 +1,152 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import com.openclassrooms.starterjwt.models.RevokedToken;
+import com.openclassrooms.starterjwt.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Revoked token ids, stored in the revoked_tokens table and mirrored in a per-node Bloom filter.
+ * Tokens that are not revoked are rejected by the filter without a query; only probable hits
+ * are confirmed against the table. Revocations made on other nodes are picked up by an
+ * incremental refresh on the creation time, which re-reads an overlap window to catch rows that
+ * committed late or were stamped by a node whose clock lags.
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+    static final String USER_PREFIX = "user:";
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final long jwtExpirationMs;
+    private final Duration refreshOverlap;
+    private final Counter databaseChecks;
+    private final Counter falsePositives;
+
+    private final Object lock = new Object();
+    private volatile BloomFilter filter;
+    private LocalDateTime lastRefresh;
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${oc.app.revocationBloomExpectedInsertions:100000}") long expectedInsertions,
+                               @Value("${oc.app.revocationBloomFalsePositiveRate:0.001}") double falsePositiveRate,
+                               @Value("${oc.app.jwtExpirationMs}") long jwtExpirationMs,
+                               @Value("${oc.app.revocationRefreshOverlapMs:60000}") long refreshOverlapMs) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.refreshOverlap = Duration.ofMillis(refreshOverlapMs);
+        this.databaseChecks = Counter.builder("auth.revocation.database.checks")
+                .description("Bloom filter hits confirmed against the revoked_tokens table")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("auth.revocation.false.positives")
+                .description("Bloom filter hits that were not revoked")
+                .register(meterRegistry);
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    /**
+     * Replaces the filter with the revocations that have not expired yet.
+     */
+    @PostConstruct
+    public void rebuild() {
+        synchronized (lock) {
+            LocalDateTime started = LocalDateTime.now();
+            List<String> active = revokedTokenRepository.findActiveTokenIds(started);
+            BloomFilter fresh = new BloomFilter(Math.max(expectedInsertions, active.size() * 2L), falsePositiveRate);
+            active.forEach(fresh::put);
+            filter = fresh;
+            lastRefresh = started;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${oc.app.revocationRefreshMs:5000}")
+    public void refresh() {
+        synchronized (lock) {
+            if (lastRefresh == null) {
+                rebuild();
+                return;
+            }
+            LocalDateTime started = LocalDateTime.now();
+            revokedTokenRepository.findTokenIdsCreatedSince(lastRefresh.minus(refreshOverlap)).forEach(filter::put);
+            lastRefresh = started;
+        }
+    }
+
+    @Scheduled(cron = "${oc.app.revocationPurgeCron:0 30 * * * *}")
+    public void purgeExpired() {
+        int purged = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired token revocations", purged);
+        }
+        // Every node rebuilds, not only the one whose delete removed the rows
+        rebuild();
+    }
+
+    public boolean isRevoked(Claims claims) {
+        String jti = claims.getId();
+        if (jti != null && isRevoked(jti)) {
+            return true;
+        }
+        Object userId = claims.get(JwtUtils.CLAIM_ID);
+        return userId instanceof Number id && isRevoked(USER_PREFIX + id.longValue());
+    }
+
+    public void revoke(Claims claims) {
+        if (claims.getId() == null) {
+            log.debug("Token of {} has no jti and cannot be revoked individually", claims.getSubject());
+            return;
+        }
+        revoke(claims.getId(), LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault()));
+    }
+
+    /**
+     * Revokes every token issued to the account so far.
+     */
+    public void revokeUser(Long userId) {
+        revoke(USER_PREFIX + userId, LocalDateTime.now().plus(Duration.ofMillis(jwtExpirationMs)));
+    }
+
+    private boolean isRevoked(String tokenId) {
+        if (!filter.mightContain(tokenId)) {
+            return false;
+        }
+        databaseChecks.increment();
+        boolean revoked = revokedTokenRepository.existsByTokenId(tokenId);
+        if (!revoked) {
+            falsePositives.increment();
+        }
+        return revoked;
+    }
+
+    private void revoke(String tokenId, LocalDateTime expiresAt) {
+        try {
+            revokedTokenRepository.save(RevokedToken.builder()
+                    .tokenId(tokenId)
+                    .expiresAt(expiresAt)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Token {} is already revoked", tokenId);
+        }
+        // Under the lock so that a concurrent rebuild cannot drop it
+        synchronized (lock) {
+            filter.put(tokenId);
+        }
+    }
+}
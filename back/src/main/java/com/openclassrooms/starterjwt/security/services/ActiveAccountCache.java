@@ -0,0 +1,43 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Short-lived record of which account ids still exist, used by the stateless
+ * authentication mode to reject tokens of deleted accounts without querying
+ * the database on every request.
+ */
+@Component
+public class ActiveAccountCache {
+    private final UserRepository userRepository;
+    private final Cache<Long, Boolean> cache;
+
+    public ActiveAccountCache(UserRepository userRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${oc.app.revocationCheckTtlSeconds:30}") long ttlSeconds,
+                              @Value("${oc.app.revocationCheckMaxSize:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "activeAccounts");
+    }
+
+    public boolean isActive(Long userId) {
+        return cache.get(userId, userRepository::existsById);
+    }
+
+    public void markDeleted(Long userId) {
+        cache.put(userId, Boolean.FALSE);
+    }
+}
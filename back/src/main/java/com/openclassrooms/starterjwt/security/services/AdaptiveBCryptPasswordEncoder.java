@@ -0,0 +1,89 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder whose work factor is chosen on the running host. Hashes stored with any other
+ * work factor are reported by {@link #upgradeEncoding(String)}, so Spring Security re-hashes them
+ * (up or down) after the next successful login.
+ */
+@Slf4j
+public class AdaptiveBCryptPasswordEncoder implements PasswordEncoder {
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d\\d)\\$");
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    @Getter
+    private final int strength;
+    private final BCryptPasswordEncoder delegate;
+
+    public AdaptiveBCryptPasswordEncoder(int strength) {
+        this.strength = strength;
+        this.delegate = new BCryptPasswordEncoder(strength);
+    }
+
+    /**
+     * Picks the highest work factor in {@code [minStrength, maxStrength]} whose hash time stays within
+     * {@code targetMs} on this host. A positive {@code fixedStrength} skips the measurement.
+     */
+    public static AdaptiveBCryptPasswordEncoder calibrated(int fixedStrength, long targetMs, int minStrength, int maxStrength) {
+        if (fixedStrength > 0) {
+            return new AdaptiveBCryptPasswordEncoder(fixedStrength);
+        }
+        // Warm up the JIT so the first measurement is not inflated
+        new BCryptPasswordEncoder(4).encode(CALIBRATION_PASSWORD);
+
+        long targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMs);
+        int strength = minStrength;
+        for (int candidate = minStrength; candidate <= maxStrength; candidate++) {
+            long elapsedNanos = measureNanos(candidate);
+            if (elapsedNanos > targetNanos && candidate > minStrength) {
+                break;
+            }
+            strength = candidate;
+            // Each extra round doubles the cost
+            if (elapsedNanos * 2 > targetNanos) {
+                break;
+            }
+        }
+        log.info("BCrypt work factor set to {} for a {} ms target", strength, targetMs);
+        return new AdaptiveBCryptPasswordEncoder(strength);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int cost = costOf(encodedPassword);
+        return cost > 0 && cost != strength;
+    }
+
+    static int costOf(String encodedPassword) {
+        if (encodedPassword == null) {
+            return -1;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    private static long measureNanos(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long start = System.nanoTime();
+        encoder.encode(CALIBRATION_PASSWORD);
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,67 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import com.openclassrooms.starterjwt.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Per client IP and per target email throttling of the password endpoints. A limit of 0
+ * disables the corresponding bucket.
+ */
+@Component
+public class AuthRateLimiter {
+    private static final int STRIPES = 64;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final MeterRegistry meterRegistry;
+    private final TokenBucketRateLimiter loginByIp;
+    private final TokenBucketRateLimiter loginByEmail;
+    private final TokenBucketRateLimiter registerByIp;
+    private final TokenBucketRateLimiter registerByEmail;
+
+    public AuthRateLimiter(MeterRegistry meterRegistry,
+                           @Value("${oc.app.loginRateLimitPerIp:20}") long loginPerIp,
+                           @Value("${oc.app.loginRateLimitPerEmail:5}") long loginPerEmail,
+                           @Value("${oc.app.registerRateLimitPerIp:5}") long registerPerIp,
+                           @Value("${oc.app.registerRateLimitPerEmail:3}") long registerPerEmail,
+                           @Value("${oc.app.rateLimitPeriodSeconds:60}") long periodSeconds,
+                           @Value("${oc.app.rateLimitMaxKeys:100000}") int maxKeys) {
+        this.meterRegistry = meterRegistry;
+        Duration period = Duration.ofSeconds(periodSeconds);
+        this.loginByIp = limiter(loginPerIp, period, maxKeys);
+        this.loginByEmail = limiter(loginPerEmail, period, maxKeys);
+        this.registerByIp = limiter(registerPerIp, period, maxKeys);
+        this.registerByEmail = limiter(registerPerEmail, period, maxKeys);
+    }
+
+    public void checkLogin(String clientIp, String email) {
+        check("login", loginByIp, loginByEmail, clientIp, email);
+    }
+
+    public void checkRegister(String clientIp, String email) {
+        check("register", registerByIp, registerByEmail, clientIp, email);
+    }
+
+    private void check(String endpoint, TokenBucketRateLimiter byIp, TokenBucketRateLimiter byEmail,
+                       String clientIp, String email) {
+        String limitedBy = "ip";
+        long waitNanos = byIp != null && clientIp != null ? byIp.tryAcquire(clientIp) : 0;
+        if (waitNanos == 0 && byEmail != null && email != null) {
+            limitedBy = "email";
+            waitNanos = byEmail.tryAcquire(email.trim().toLowerCase(Locale.ROOT));
+        }
+        if (waitNanos > 0) {
+            meterRegistry.counter("auth.rate.limited", "endpoint", endpoint, "key", limitedBy).increment();
+            long retryAfterSeconds = Math.max(1, (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+            throw new TooManyRequestsException("Too many attempts, please try again later", retryAfterSeconds);
+        }
+    }
+
+    private static TokenBucketRateLimiter limiter(long limit, Duration period, int maxKeys) {
+        return limit > 0 ? new TokenBucketRateLimiter(limit, period, STRIPES, maxKeys) : null;
+    }
+}
@@ -0,0 +1,194 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token buckets keyed by string. Keys are spread over lock-striped maps so that unrelated
+ * clients never contend on the same lock. Each stripe keeps its buckets on a timing wheel
+ * and drops them once they have refilled completely, since a full bucket behaves exactly
+ * like a missing one. Stripes are also capped in size (least recently used first out), so
+ * memory stays bounded whatever the number of distinct keys.
+ */
+public class TokenBucketRateLimiter {
+    private static final int WHEEL_SLOTS = 64;
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final long tickNanos;
+    private final Stripe[] stripes;
+
+    /**
+     * @param capacity     burst size, refilled over {@code refillPeriod}
+     * @param refillPeriod time to go from an empty to a full bucket
+     * @param stripeCount  number of independent locks, rounded up to a power of two
+     * @param maxKeys      upper bound on the number of buckets kept in memory
+     */
+    public TokenBucketRateLimiter(long capacity, Duration refillPeriod, int stripeCount, int maxKeys) {
+        if (capacity <= 0 || refillPeriod.isZero() || refillPeriod.isNegative()) {
+            throw new IllegalArgumentException("Capacity and refill period must be positive");
+        }
+        long refillNanos = refillPeriod.toNanos();
+        this.capacity = capacity;
+        this.tokensPerNano = (double) capacity / refillNanos;
+        // Keep every expiry less than one turn ahead so a slot never holds two generations
+        this.tickNanos = Math.max(1, (refillNanos + WHEEL_SLOTS - 3) / (WHEEL_SLOTS - 2));
+
+        int count = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        int keysPerStripe = Math.max(1, maxKeys / count);
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(keysPerStripe);
+        }
+    }
+
+    /**
+     * Takes one token for the key.
+     *
+     * @return 0 when the call is allowed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    long tryAcquire(String key, long now) {
+        int hash = key.hashCode();
+        Stripe stripe = stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+        stripe.lock.lock();
+        try {
+            stripe.advance(now);
+
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(key, capacity, now);
+                stripe.buckets.put(key, bucket);
+                stripe.link(bucket, now);
+            } else {
+                bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.refilledAt) * tokensPerNano);
+                bucket.refilledAt = now;
+            }
+
+            long waitNanos = 0;
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+            } else {
+                waitNanos = (long) Math.ceil((1 - bucket.tokens) / tokensPerNano);
+            }
+            // The wheel only moves the bucket when its slot comes up
+            bucket.expiresAt = now + (long) Math.ceil((capacity - bucket.tokens) / tokensPerNano);
+            return waitNanos;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.buckets.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private static final class Bucket {
+        final String key;
+        double tokens;
+        long refilledAt;
+        long expiresAt;
+        // Position in the timing wheel
+        Bucket prev;
+        Bucket next;
+
+        Bucket(String key, double tokens, long now) {
+            this.key = key;
+            this.tokens = tokens;
+            this.refilledAt = now;
+            this.expiresAt = now;
+        }
+    }
+
+    private final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final Bucket[] wheel = new Bucket[WHEEL_SLOTS];
+        final Map<String, Bucket> buckets;
+        long sweptTick;
+        boolean started;
+
+        Stripe(int maxKeys) {
+            for (int i = 0; i < WHEEL_SLOTS; i++) {
+                Bucket head = new Bucket(null, 0, 0);
+                head.prev = head;
+                head.next = head;
+                wheel[i] = head;
+            }
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    if (size() > maxKeys) {
+                        unlink(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        void advance(long now) {
+            long currentTick = Math.floorDiv(now, tickNanos);
+            if (!started) {
+                started = true;
+                sweptTick = currentTick;
+                return;
+            }
+            long from = Math.max(sweptTick + 1, currentTick - WHEEL_SLOTS + 1);
+            for (long tick = from; tick <= currentTick; tick++) {
+                Bucket head = wheel[slotOf(tick)];
+                Bucket bucket = head.next;
+                // Detach the slot first: buckets that are still in use are re-linked further ahead
+                head.next = head;
+                head.prev = head;
+                while (bucket != head) {
+                    Bucket next = bucket.next;
+                    bucket.prev = null;
+                    bucket.next = null;
+                    if (bucket.expiresAt <= now) {
+                        buckets.remove(bucket.key);
+                    } else {
+                        link(bucket, now);
+                    }
+                    bucket = next;
+                }
+            }
+            sweptTick = Math.max(sweptTick, currentTick);
+        }
+
+        void link(Bucket bucket, long now) {
+            long tick = Math.max(Math.floorDiv(bucket.expiresAt, tickNanos), Math.floorDiv(now, tickNanos)) + 1;
+            Bucket head = wheel[slotOf(tick)];
+            bucket.prev = head.prev;
+            bucket.next = head;
+            head.prev.next = bucket;
+            head.prev = bucket;
+        }
+
+        void unlink(Bucket bucket) {
+            if (bucket.prev != null) {
+                bucket.prev.next = bucket.next;
+                bucket.next.prev = bucket.prev;
+                bucket.prev = null;
+                bucket.next = null;
+            }
+        }
+
+        private int slotOf(long tick) {
+            return (int) Math.floorMod(tick, (long) WHEEL_SLOTS);
+        }
+    }
+}
@@ -3,22 +3,47 @@ package com.openclassrooms.starterjwt.security.services;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     UserRepository userRepository;
+    UserDetailsCache userDetailsCache;
 
-    UserDetailsServiceImpl(UserRepository userRepository) {
+    UserDetailsServiceImpl(UserRepository userRepository, UserDetailsCache userDetailsCache) {
         this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
     }
 
+    // Not @Transactional: a cache hit must not open a transaction and check out a connection
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return userDetailsCache.get(username, this::loadFromRepository);
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword, LocalDateTime.now());
+        userDetailsCache.invalidate(user.getUsername());
+
+        UserDetailsImpl current = (UserDetailsImpl) user;
+        return UserDetailsImpl
+                .builder()
+                .id(current.getId())
+                .username(current.getUsername())
+                .lastName(current.getLastName())
+                .firstName(current.getFirstName())
+                .admin(current.getAdmin())
+                .password(newPassword)
+                .build();
+    }
+
+    private UserDetailsImpl loadFromRepository(String username) {
         User user = userRepository.findByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User Not Found with email: " + username));
 
@@ -28,6 +53,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 .username(user.getEmail())
                 .lastName(user.getLastName())
                 .firstName(user.getFirstName())
+                .admin(user.isAdmin())
                 .password(user.getPassword())
                 .build();
     }
@@ -4,12 +4,18 @@ import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.mapper.AuthMapper;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.payload.request.RefreshRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
 import com.openclassrooms.starterjwt.payload.response.JwtResponse;
 import com.openclassrooms.starterjwt.payload.response.MessageResponse;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtClaimsCache;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import com.openclassrooms.starterjwt.security.services.PasswordHashingExecutor;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -17,6 +23,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 @Service
 @RequiredArgsConstructor
@@ -26,30 +33,65 @@ public class AuthService {
     private final UserRepository userRepository;
     private final AuthMapper authMapper;
     private final PasswordEncoder passwordEncoder;
+    private final UserDetailsCache userDetailsCache;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final RefreshTokenService refreshTokenService;
+    private final JwtClaimsCache jwtClaimsCache;
+    private final TokenRevocationList tokenRevocationList;
 
     public JwtResponse authenticateUser(LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
+        // The bcrypt check runs on the bounded hashing pool, not on the request thread
+        Authentication authentication = passwordHashingExecutor.execute(() -> authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())));
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = jwtUtils.generateJwtToken(authentication);
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
 
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new BadRequestException("User not found after authentication"));
+        return buildJwtResponse(jwt, refreshTokenService.issue(userDetails.getId()), userDetails);
+    }
+
+    public JwtResponse refresh(RefreshRequest refreshRequest) {
+        // No password check: a token lookup and an HMAC signature replace the bcrypt round
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshRequest.getRefreshToken());
+        User user = rotation.user();
+        UserDetailsImpl userDetails = UserDetailsImpl.builder()
+                .id(user.getId())
+                .username(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .admin(user.isAdmin())
+                .build();
+
+        return buildJwtResponse(jwtUtils.generateJwtToken(userDetails), rotation.refreshToken(), userDetails);
+    }
+
+    public MessageResponse logout(String accessToken, String refreshToken) {
+        if (StringUtils.hasText(accessToken)) {
+            Claims claims = jwtClaimsCache.getVerifiedClaims(accessToken);
+            if (claims != null) {
+                tokenRevocationList.revoke(claims);
+            }
+        }
+        if (StringUtils.hasText(refreshToken)) {
+            refreshTokenService.revoke(refreshToken);
+        }
+        SecurityContextHolder.clearContext();
 
-        return buildJwtResponse(jwt, userDetails, user.isAdmin());
+        return new MessageResponse("Logged out successfully!");
     }
 
-    private JwtResponse buildJwtResponse(String token, UserDetailsImpl userDetails, Boolean admin) {
-        return new JwtResponse(
+    private JwtResponse buildJwtResponse(String token, String refreshToken, UserDetailsImpl userDetails) {
+        JwtResponse response = new JwtResponse(
                 token,
                 userDetails.getId(),
                 userDetails.getUsername(),
                 userDetails.getFirstName(),
                 userDetails.getLastName(),
-                admin
+                userDetails.getAdmin()
         );
+        response.setRefreshToken(refreshToken);
+        return response;
     }
 
     public MessageResponse registerUser(SignupRequest signUpRequest) {
@@ -63,8 +105,9 @@ public class AuthService {
         }
         
         // Encode password after mapping
-        user.setPassword(passwordEncoder.encode(signUpRequest.getPassword()));
+        user.setPassword(passwordHashingExecutor.execute(() -> passwordEncoder.encode(signUpRequest.getPassword())));
         userRepository.save(user);
+        userDetailsCache.invalidate(user.getEmail());
 
         return new MessageResponse("User registered successfully!");
     }
@@ -0,0 +1,32 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Search backed by a MySQL FULLTEXT index on sessions (name, description), ranked by the
+ * natural language mode relevance. The index is created by migration
+ * V10__session_search_and_calendar_indexes and maintained by InnoDB on every write.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "oc.app.sessionSearchIndex", havingValue = "fulltext", matchIfMissing = true)
+public class FullTextSessionSearchIndex implements SessionSearchIndex {
+    private final SessionRepository sessionRepository;
+
+    @Override
+    public Result search(List<String> terms, int offset, int limit) {
+        // Plain words only, so that no boolean operator reaches the parser
+        String query = String.join(" ", terms);
+        List<Hit> hits = sessionRepository.searchFullText(query, limit, offset).stream()
+                .map(row -> new Hit(((Number) row[0]).longValue(), ((Number) row[1]).doubleValue()))
+                .toList();
+        // A short first page is the whole result
+        long total = offset == 0 && hits.size() < limit ? hits.size() : sessionRepository.countFullText(query);
+        return new Result(hits, total);
+    }
+}
@@ -0,0 +1,141 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index held in memory and ranked with BM25, for databases without full-text search
+ * such as the H2 test database. Loaded from the table at startup, then kept current from the
+ * committed session writes of this node.
+ */
+@Component
+@ConditionalOnProperty(name = "oc.app.sessionSearchIndex", havingValue = "memory")
+public class InMemorySessionSearchIndex implements SessionSearchIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // A word of the name counts as much as this many occurrences in the description
+    private static final int NAME_WEIGHT = 2;
+
+    private final SessionRepository sessionRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // term -> session id -> weighted term frequency
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    // session id -> weighted term frequencies of the session
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private long totalLength;
+
+    public InMemorySessionSearchIndex(SessionRepository sessionRepository) {
+        this.sessionRepository = sessionRepository;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        List<Object[]> rows = sessionRepository.findSearchableText();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+            for (Object[] row : rows) {
+                add(((Number) row[0]).longValue(), (String) row[1], (String) row[2]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(long sessionId, String name, String description) {
+        lock.writeLock().lock();
+        try {
+            delete(sessionId);
+            add(sessionId, name, description);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long sessionId) {
+        lock.writeLock().lock();
+        try {
+            delete(sessionId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Result search(List<String> terms, int offset, int limit) {
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int count = documents.size();
+            double averageLength = count == 0 ? 0 : (double) totalLength / count;
+            for (String term : new LinkedHashSet<>(terms)) {
+                Map<Long, Integer> matches = postings.get(term);
+                if (matches == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (count - matches.size() + 0.5) / (matches.size() + 0.5));
+                for (Map.Entry<Long, Integer> match : matches.entrySet()) {
+                    int frequency = match.getValue();
+                    double length = length(documents.get(match.getKey()));
+                    double score = idf * frequency * (K1 + 1)
+                            / (frequency + K1 * (1 - B + B * length / averageLength));
+                    scores.merge(match.getKey(), score, Double::sum);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> ranked = new ArrayList<>(scores.size());
+        scores.forEach((sessionId, score) -> ranked.add(new Hit(sessionId, score)));
+        ranked.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparingLong(Hit::sessionId));
+        int from = Math.min(offset, ranked.size());
+        int to = Math.min(from + limit, ranked.size());
+        return new Result(List.copyOf(ranked.subList(from, to)), ranked.size());
+    }
+
+    private void add(long sessionId, String name, String description) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        SessionSearchIndex.terms(name).forEach(term -> frequencies.merge(term, NAME_WEIGHT, Integer::sum));
+        SessionSearchIndex.terms(description).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+        documents.put(sessionId, frequencies);
+        totalLength += length(frequencies);
+        frequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, key -> new HashMap<>()).put(sessionId, frequency));
+    }
+
+    private void delete(long sessionId) {
+        Map<String, Integer> frequencies = documents.remove(sessionId);
+        if (frequencies == null) {
+            return;
+        }
+        totalLength -= length(frequencies);
+        for (String term : frequencies.keySet()) {
+            Map<Long, Integer> matches = postings.get(term);
+            matches.remove(sessionId);
+            if (matches.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static int length(Map<String, Integer> frequencies) {
+        return frequencies.values().stream().mapToInt(Integer::intValue).sum();
+    }
+}
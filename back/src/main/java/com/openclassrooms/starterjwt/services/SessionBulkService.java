@@ -0,0 +1,206 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.models.CollectionVersion;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.response.BulkSessionResult;
+import com.openclassrooms.starterjwt.repository.CollectionVersionRepository;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistEntryRepository;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates and updates many sessions in one transaction. The whole payload is checked first with
+ * a fixed number of queries; if any session is invalid nothing is written. Otherwise the rows
+ * are flushed together, so that Hibernate sends them as JDBC batches.
+ */
+@Service
+@RequiredArgsConstructor
+public class SessionBulkService {
+    private final SessionRepository sessionRepository;
+    private final UserRepository userRepository;
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final CollectionVersionRepository collectionVersionRepository;
+    private final SessionMapper sessionMapper;
+    private final TeacherService teacherService;
+    private final SessionService sessionService;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${oc.app.sessionBulkMaxItems:5000}")
+    private int maxItems;
+
+    /**
+     * Sessions with an id are updated, the others created. Returns one result per session, in
+     * request order; none is applied when any result is {@link BulkSessionResult.Status#INVALID}.
+     */
+    @Transactional
+    public List<BulkSessionResult> save(List<SessionDto> sessionDtos) {
+        if (sessionDtos == null || sessionDtos.isEmpty() || sessionDtos.size() > maxItems) {
+            throw new BadRequestException("The request must contain between 1 and " + maxItems + " sessions");
+        }
+
+        Map<Long, Session> existing = sessionRepository.findAllById(sessionDtos.stream()
+                        .filter(Objects::nonNull)
+                        .map(SessionDto::getId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Session::getId, Function.identity()));
+        Map<Long, User> users = userRepository.findAllById(sessionDtos.stream()
+                        .filter(Objects::nonNull)
+                        .filter(sessionDto -> sessionDto.getUsers() != null)
+                        .flatMap(sessionDto -> sessionDto.getUsers().stream())
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, Teacher> teachers = new HashMap<>();
+
+        List<BulkSessionResult> results = new ArrayList<>(sessionDtos.size());
+        Set<Long> seenIds = new HashSet<>();
+        boolean invalid = false;
+        for (int i = 0; i < sessionDtos.size(); i++) {
+            List<String> errors = validate(sessionDtos.get(i), existing, users, teachers, seenIds);
+            invalid |= !errors.isEmpty();
+            results.add(new BulkSessionResult(i, sessionDtos.get(i) == null ? null : sessionDtos.get(i).getId(),
+                    errors.isEmpty() ? null : BulkSessionResult.Status.INVALID, errors));
+        }
+        if (invalid) {
+            results.stream()
+                    .filter(result -> result.getStatus() == null)
+                    .forEach(result -> result.setStatus(BulkSessionResult.Status.SKIPPED));
+            return results;
+        }
+
+        List<Session> sessions = new ArrayList<>(sessionDtos.size());
+        List<Long> freedIds = new ArrayList<>();
+        for (SessionDto sessionDto : sessionDtos) {
+            Session session = existing.get(sessionDto.getId());
+            if (session == null) {
+                session = sessionMapper.toEntity(sessionDto);
+            } else {
+                // Seats are freed when the capacity grows or participants are removed: the waitlist
+                // is then promoted below
+                if (freesSeats(session, sessionDto)) {
+                    freedIds.add(session.getId());
+                }
+                session.setName(sessionDto.getName())
+                        .setDate(sessionDto.getDate())
+                        .setDescription(sessionDto.getDescription())
+                        .setMaxParticipants(sessionDto.getMaxParticipants());
+            }
+            session.setTeacher(teachers.get(sessionDto.getTeacher_id()));
+            session.setUsers(sessionDto.getUsers() == null ? new LinkedHashSet<>() : sessionDto.getUsers().stream()
+                    .map(users::get)
+                    .collect(Collectors.toCollection(LinkedHashSet::new)));
+            sessions.add(session);
+        }
+        // Ids are assigned from the pooled generator here; the rows are only sent on flush
+        sessionRepository.saveAll(sessions);
+        sessionRepository.flush();
+
+        List<Long> ids = sessions.stream().map(Session::getId).collect(Collectors.toList());
+        sessionRepository.syncParticipantCounts(ids);
+        if (!existing.isEmpty()) {
+            waitlistEntryRepository.deleteEnrolled(existing.keySet());
+        }
+        freedIds.forEach(sessionService::promoteFromWaitlist);
+        collectionVersionRepository.bump(CollectionVersion.SESSIONS);
+
+        List<Long> createdIds = new ArrayList<>();
+        List<Long> updatedIds = new ArrayList<>();
+        for (int i = 0; i < sessions.size(); i++) {
+            boolean created = !existing.containsKey(sessionDtos.get(i).getId());
+            BulkSessionResult result = results.get(i);
+            result.setId(ids.get(i));
+            result.setStatus(created ? BulkSessionResult.Status.CREATED : BulkSessionResult.Status.UPDATED);
+            (created ? createdIds : updatedIds).add(ids.get(i));
+        }
+        // One event for the whole import, so that stream buffers and caches see a single change
+        eventPublisher.publishEvent(new SessionsBulkChangedEvent(createdIds, updatedIds));
+        return results;
+    }
+
+    private List<String> validate(SessionDto sessionDto, Map<Long, Session> existing, Map<Long, User> users,
+                                  Map<Long, Teacher> teachers, Set<Long> seenIds) {
+        if (sessionDto == null) {
+            return List.of("Session must not be null");
+        }
+        List<String> errors = validator.validate(sessionDto).stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.toList());
+
+        if (sessionDto.getId() != null) {
+            if (!existing.containsKey(sessionDto.getId())) {
+                errors.add("Session not found");
+            } else if (!seenIds.add(sessionDto.getId())) {
+                errors.add("Session is updated more than once");
+            }
+        }
+        if (sessionDto.getTeacher_id() != null && findTeacher(sessionDto.getTeacher_id(), teachers) == null) {
+            errors.add("Teacher not found");
+        }
+        if (sessionDto.getUsers() != null) {
+            List<Long> missing = sessionDto.getUsers().stream()
+                    .filter(userId -> userId == null || !users.containsKey(userId))
+                    .distinct()
+                    .collect(Collectors.toList());
+            if (!missing.isEmpty()) {
+                errors.add("Users not found with ids: " + missing.stream()
+                        .map(String::valueOf)
+                        .collect(Collectors.joining(", ")));
+            }
+            // The participant list is replaced as a whole, so it must fit the capacity
+            if (sessionDto.getMaxParticipants() != null
+                    && sessionDto.getUsers().stream().distinct().count() > sessionDto.getMaxParticipants()) {
+                errors.add("Session has more participants than seats");
+            }
+        }
+        return errors.isEmpty() ? Collections.emptyList() : errors;
+    }
+
+    private Teacher findTeacher(Long teacherId, Map<Long, Teacher> teachers) {
+        // Teachers are served from memory; misses are remembered as null
+        if (!teachers.containsKey(teacherId)) {
+            Teacher teacher;
+            try {
+                teacher = teacherService.findById(teacherId);
+            } catch (NotFoundException e) {
+                teacher = null;
+            }
+            teachers.put(teacherId, teacher);
+        }
+        return teachers.get(teacherId);
+    }
+
+    private static boolean freesSeats(Session session, SessionDto sessionDto) {
+        Integer before = session.getMaxParticipants();
+        Integer after = sessionDto.getMaxParticipants();
+        long participants = sessionDto.getUsers() == null ? 0 : sessionDto.getUsers().stream().distinct().count();
+        return before != null && (after == null || after > before)
+                || participants < session.getParticipantCount();
+    }
+}
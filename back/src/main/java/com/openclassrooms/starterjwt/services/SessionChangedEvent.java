@@ -0,0 +1,13 @@
+package com.openclassrooms.starterjwt.services;
+
+/**
+ * Published by {@link SessionService} for every change to a session; delivered to stream clients once committed.
+ */
+public record SessionChangedEvent(Type type, Long sessionId) {
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        PARTICIPANTS_CHANGED
+    }
+}
@@ -0,0 +1,136 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of assembled sessions, by id and by list query, each stored with its ETag. Entries are
+ * evicted once a session change has committed, so a reader never gets a state older than the
+ * last committed write; the TTL only bounds memory and staleness from writes made elsewhere.
+ * <p>
+ * Callers read {@link #generation()} before loading from the database and hand it back with the
+ * result: a result loaded across a commit is then never cached.
+ */
+@Component
+public class SessionDtoCache {
+    private final Cache<Long, CachedSession> sessions;
+    private final Cache<PageKey, CachedPage> pages;
+    private final AtomicLong generation = new AtomicLong();
+
+    public record CachedSession(String eTag, SessionDto session) {
+    }
+
+    public record CachedPage(String eTag, List<SessionDto> sessions, String nextCursor) {
+    }
+
+    private record PageKey(long generation, String cursor, Integer size, LocalDate from, LocalDate to,
+                           Long teacherId, boolean upcoming) {
+        private PageKey(long generation, SessionFilter filter) {
+            this(generation, filter.getCursor(), filter.getSize(), filter.getFrom(), filter.getTo(),
+                    filter.getTeacherId(), filter.isUpcoming());
+        }
+    }
+
+    public SessionDtoCache(MeterRegistry meterRegistry,
+                           @Value("${oc.app.sessionCacheMaxSize:10000}") long maxSize,
+                           @Value("${oc.app.sessionPageCacheMaxSize:1000}") long pageMaxSize,
+                           @Value("${oc.app.sessionCacheTtlSeconds:300}") long ttlSeconds) {
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(pageMaxSize)
+                .expireAfter(new PageExpiry(TimeUnit.SECONDS.toNanos(ttlSeconds)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, sessions, "sessions");
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "sessionPages");
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public CachedSession findSession(Long id) {
+        return sessions.getIfPresent(id);
+    }
+
+    /**
+     * Caches a session loaded after {@code loadedAt} was read from {@link #generation()}.
+     */
+    public void putSession(Long id, CachedSession session, long loadedAt) {
+        // Runs under the entry lock, so it is ordered with the eviction of the same id
+        sessions.asMap().compute(id, (key, current) -> generation.get() == loadedAt ? session : current);
+    }
+
+    public CachedPage findPage(SessionFilter filter) {
+        return pages.getIfPresent(new PageKey(generation.get(), filter));
+    }
+
+    public void putPage(SessionFilter filter, CachedPage page, long loadedAt) {
+        // A page loaded across a commit lands under a generation no reader asks for
+        pages.put(new PageKey(loadedAt, filter), page);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSessionChanged(SessionChangedEvent event) {
+        generation.incrementAndGet();
+        sessions.invalidate(event.sessionId());
+        // Any change can move a session into or out of any page
+        pages.invalidateAll();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSessionsBulkChanged(SessionsBulkChangedEvent event) {
+        generation.incrementAndGet();
+        sessions.invalidateAll(event.updatedIds());
+        pages.invalidateAll();
+    }
+
+    /**
+     * Upcoming pages change with the clock alone, so they also expire when their first session starts.
+     */
+    private static final class PageExpiry implements Expiry<PageKey, CachedPage> {
+        private final long ttlNanos;
+
+        private PageExpiry(long ttlNanos) {
+            this.ttlNanos = ttlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(PageKey key, CachedPage page, long currentTime) {
+            if (!key.upcoming() || page.sessions().isEmpty()) {
+                return ttlNanos;
+            }
+            long untilStartMs = page.sessions().get(0).getDate().getTime() - System.currentTimeMillis();
+            return Math.min(ttlNanos, TimeUnit.MILLISECONDS.toNanos(Math.max(untilStartMs, 0)));
+        }
+
+        @Override
+        public long expireAfterUpdate(PageKey key, CachedPage page, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(PageKey key, CachedPage page, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans committed {@link SessionChangedEvent}s and {@link SessionsBulkChangedEvent}s out to Server-Sent
+ * Events clients. Each client has a bounded buffer; a client whose buffer is full is disconnected
+ * instead of slowing down the publisher. Idle clients hold no thread: a buffer is drained on a
+ * virtual thread only while it has something to send.
+ */
+@Component
+public class SessionEventBroadcaster {
+    private static final Object HEARTBEAT = new Object();
+
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("session-stream-", 0).factory());
+    private final long timeoutMs;
+    private final int bufferSize;
+    private final int maxClients;
+    private final Counter dropped;
+
+    public SessionEventBroadcaster(MeterRegistry meterRegistry,
+                                   @Value("${oc.app.sessionStreamTimeoutMs:1800000}") long timeoutMs,
+                                   @Value("${oc.app.sessionStreamBufferSize:64}") int bufferSize,
+                                   @Value("${oc.app.sessionStreamMaxClients:10000}") int maxClients) {
+        this.timeoutMs = timeoutMs;
+        this.bufferSize = bufferSize;
+        this.maxClients = maxClients;
+        this.dropped = Counter.builder("session.stream.dropped").register(meterRegistry);
+        Gauge.builder("session.stream.clients", clients, Set::size).register(meterRegistry);
+    }
+
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        if (clients.size() >= maxClients) {
+            throw new ServiceUnavailableException("Too many session stream clients, please retry later", 30);
+        }
+        Client client = new Client(emitter);
+        clients.add(client);
+        emitter.onCompletion(() -> clients.remove(client));
+        emitter.onTimeout(() -> clients.remove(client));
+        emitter.onError(e -> clients.remove(client));
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSessionChanged(SessionChangedEvent event) {
+        clients.forEach(client -> client.offer(event));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSessionsBulkChanged(SessionsBulkChangedEvent event) {
+        clients.forEach(client -> client.offer(event));
+    }
+
+    // Comment lines keep proxies from closing idle connections and reveal dead ones
+    @Scheduled(fixedDelayString = "${oc.app.sessionStreamHeartbeatMs:30000}")
+    public void heartbeat() {
+        clients.forEach(client -> client.offer(HEARTBEAT));
+    }
+
+    int clientCount() {
+        return clients.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clients.forEach(client -> client.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    private final class Client {
+        private final SseEmitter emitter;
+        private final Queue<Object> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Client(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Object message) {
+            if (!buffer.offer(message)) {
+                // Slow consumer: drop it rather than block or grow without bound
+                dropped.increment();
+                clients.remove(this);
+                emitter.complete();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Object message;
+                while ((message = buffer.poll()) != null) {
+                    try {
+                        send(message);
+                    } catch (IOException | IllegalStateException e) {
+                        clients.remove(this);
+                        buffer.clear();
+                        emitter.completeWithError(e);
+                        return;
+                    }
+                }
+                draining.set(false);
+                // An offer may have raced with the reset above
+            } while (!buffer.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private void send(Object message) throws IOException {
+            if (message == HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+                return;
+            }
+            if (message instanceof SessionsBulkChangedEvent bulk) {
+                emitter.send(SseEmitter.event().name("bulk_changed").data(bulk, MediaType.APPLICATION_JSON));
+                return;
+            }
+            SessionChangedEvent event = (SessionChangedEvent) message;
+            emitter.send(SseEmitter.event()
+                    .name(event.type().name().toLowerCase(Locale.ROOT))
+                    .data(event, MediaType.APPLICATION_JSON));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.openclassrooms.starterjwt.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Ranked keyword search over session names and descriptions. The implementation is chosen with
+ * {@code oc.app.sessionSearchIndex}: {@code fulltext} (MySQL) or {@code memory}.
+ */
+public interface SessionSearchIndex {
+    Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    // Shorter words are not indexed, as with the default InnoDB full-text parser
+    int MIN_TERM_LENGTH = 3;
+
+    record Hit(long sessionId, double score) {
+    }
+
+    record Result(List<Hit> hits, long total) {
+    }
+
+    /**
+     * Returns the hits ranked by relevance, best first, and the total number of matching sessions.
+     */
+    Result search(List<String> terms, int offset, int limit);
+
+    /**
+     * Called once the creation or change of a session has committed.
+     */
+    default void index(long sessionId, String name, String description) {
+    }
+
+    /**
+     * Called once the deletion of a session has committed.
+     */
+    default void remove(long sessionId) {
+    }
+
+    /**
+     * The lower-cased words of the text that are long enough to be indexed, in order.
+     */
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        Matcher matcher = WORD.matcher(text);
+        while (matcher.find()) {
+            if (matcher.end() - matcher.start() >= MIN_TERM_LENGTH) {
+                terms.add(matcher.group().toLowerCase(Locale.ROOT));
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,49 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.Session;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Passes committed writes of sessions to the {@link SessionSearchIndex}.
+ */
+public class SessionSearchListener {
+    // Resolved on use: the listener is built with the entity manager factory the index depends on
+    private final ObjectProvider<SessionSearchIndex> sessionSearchIndex;
+
+    public SessionSearchListener(ObjectProvider<SessionSearchIndex> sessionSearchIndex) {
+        this.sessionSearchIndex = sessionSearchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void onSave(Session session) {
+        long sessionId = session.getId();
+        String name = session.getName();
+        String description = session.getDescription();
+        afterCommit(() -> sessionSearchIndex.getObject().index(sessionId, name, description));
+    }
+
+    @PostRemove
+    void onRemove(Session session) {
+        long sessionId = session.getId();
+        afterCommit(() -> sessionSearchIndex.getObject().remove(sessionId));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,152 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.payload.response.SessionSearchResponse;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.stream.Collectors;
+
+/**
+ * Keyword search over sessions: ranking comes from the {@link SessionSearchIndex}, the matched
+ * sessions are then loaded in one query and their matched words highlighted.
+ */
+@Service
+public class SessionSearchService {
+    static final int SNIPPET_LENGTH = 200;
+
+    private final SessionSearchIndex sessionSearchIndex;
+    private final SessionRepository sessionRepository;
+    private final Timer searchTime;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public record SearchPage(List<SessionSearchResponse> hits, long total) {
+    }
+
+    public SessionSearchService(SessionSearchIndex sessionSearchIndex,
+                                SessionRepository sessionRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${oc.app.sessionSearchPageSize:20}") int defaultPageSize,
+                                @Value("${oc.app.sessionMaxPageSize:500}") int maxPageSize) {
+        this.sessionSearchIndex = sessionSearchIndex;
+        this.sessionRepository = sessionRepository;
+        this.searchTime = Timer.builder("session.search.time")
+                .description("Time spent ranking a search in the index")
+                .tag("index", sessionSearchIndex.getClass().getSimpleName())
+                .register(meterRegistry);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @Transactional(readOnly = true)
+    public SearchPage search(String query, int page, Integer size) {
+        List<String> terms = SessionSearchIndex.terms(query);
+        if (terms.isEmpty()) {
+            throw new BadRequestException("Search query must contain a word of at least "
+                    + SessionSearchIndex.MIN_TERM_LENGTH + " characters");
+        }
+        int pageSize = size != null ? size : defaultPageSize;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new BadRequestException("Page size must be between 1 and " + maxPageSize);
+        }
+        if (page < 0) {
+            throw new BadRequestException("Page must not be negative");
+        }
+
+        SessionSearchIndex.Result result = searchTime.record(
+                () -> sessionSearchIndex.search(terms, page * pageSize, pageSize));
+        if (result.hits().isEmpty()) {
+            return new SearchPage(List.of(), result.total());
+        }
+
+        Map<Long, Session> sessions = sessionRepository.findAllById(result.hits().stream()
+                        .map(SessionSearchIndex.Hit::sessionId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(Session::getId, Function.identity()));
+        Set<String> matched = new HashSet<>(terms);
+        // Sessions deleted since they were ranked are skipped
+        List<SessionSearchResponse> hits = result.hits().stream()
+                .map(hit -> {
+                    Session session = sessions.get(hit.sessionId());
+                    return session == null ? null : new SessionSearchResponse(
+                            session.getId(),
+                            session.getName(),
+                            session.getDate(),
+                            session.getTeacher() != null ? session.getTeacher().getId() : null,
+                            hit.score(),
+                            highlight(session.getName(), matched),
+                            highlight(snippet(session.getDescription(), matched, SNIPPET_LENGTH), matched));
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new SearchPage(hits, result.total());
+    }
+
+    /**
+     * Escapes the text for HTML and wraps every matched word in {@code <mark>}.
+     */
+    static String highlight(String text, Set<String> terms) {
+        StringBuilder highlighted = new StringBuilder(text.length() + 32);
+        Matcher matcher = SessionSearchIndex.WORD.matcher(text);
+        int last = 0;
+        while (matcher.find()) {
+            if (terms.contains(matcher.group().toLowerCase(Locale.ROOT))) {
+                highlighted.append(escape(text.substring(last, matcher.start())))
+                        .append("<mark>")
+                        .append(escape(matcher.group()))
+                        .append("</mark>");
+                last = matcher.end();
+            }
+        }
+        return highlighted.append(escape(text.substring(last))).toString();
+    }
+
+    /**
+     * At most {@code maxLength} characters of the text, starting shortly before the first
+     * matched word and cut at word boundaries.
+     */
+    static String snippet(String text, Set<String> terms, int maxLength) {
+        if (text.length() <= maxLength) {
+            return text;
+        }
+        int firstMatch = 0;
+        Matcher matcher = SessionSearchIndex.WORD.matcher(text);
+        while (matcher.find()) {
+            if (terms.contains(matcher.group().toLowerCase(Locale.ROOT))) {
+                firstMatch = matcher.start();
+                break;
+            }
+        }
+        int start = Math.max(0, Math.min(firstMatch - maxLength / 4, text.length() - maxLength));
+        int end = Math.min(text.length(), start + maxLength);
+        if (start > 0) {
+            int space = text.indexOf(' ', start);
+            start = space >= 0 && space < firstMatch ? space + 1 : start;
+        }
+        if (end < text.length()) {
+            int space = text.lastIndexOf(' ', end);
+            end = space > Math.max(start, firstMatch) ? space : end;
+        }
+        return (start > 0 ? "…" : "") + text.substring(start, end) + (end < text.length() ? "…" : "");
+    }
+
+    private static String escape(String text) {
+        // Only the markup characters: the response is UTF-8
+        return HtmlUtils.htmlEscape(text, "UTF-8");
+    }
+}
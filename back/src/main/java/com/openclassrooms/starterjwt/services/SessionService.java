@@ -1,31 +1,82 @@
 package com.openclassrooms.starterjwt.services;
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionFilter;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.models.CollectionVersion;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.payload.response.CalendarDayResponse;
+import com.openclassrooms.starterjwt.payload.response.CalendarSessionResponse;
+import com.openclassrooms.starterjwt.repository.CollectionVersionRepository;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistEntryRepository;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 @Service
 @RequiredArgsConstructor
 public class SessionService {
+    private static final long[] NO_PARTICIPANTS = new long[0];
+
     private final SessionRepository sessionRepository;
     private final UserRepository userRepository;
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final CollectionVersionRepository collectionVersionRepository;
     private final SessionMapper sessionMapper;
     private final TeacherService teacherService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${oc.app.sessionPageSize:100}")
+    private int defaultPageSize;
+
+    @Value("${oc.app.sessionMaxPageSize:500}")
+    private int maxPageSize;
 
+    @Value("${oc.app.calendarMaxDays:62}")
+    private int calendarMaxDays;
+
+    public record SessionPage(List<Session> sessions, Map<Long, long[]> participantIds, String nextCursor) {
+    }
+
+    @Transactional
     public Session create(Session session) {
-        return sessionRepository.save(session);
+        checkCapacity(session);
+        Session saved = sessionRepository.save(session);
+        sessionRepository.syncParticipantCount(saved.getId());
+        collectionVersionRepository.bump(CollectionVersion.SESSIONS);
+        eventPublisher.publishEvent(new SessionChangedEvent(SessionChangedEvent.Type.CREATED, saved.getId()));
+        return saved;
     }
 
     public Session toEntity(SessionDto sessionDto) {
@@ -37,21 +88,41 @@ public class SessionService {
             session.setTeacher(teacher);
         }
         
-        // Handle users lookup
+        // Handle users lookup, one query for all ids
         if (sessionDto.getUsers() != null && !sessionDto.getUsers().isEmpty()) {
-            List<User> users = sessionDto.getUsers().stream()
-                    .map(userId -> userRepository.findById(userId)
-                            .orElseThrow(() -> new NotFoundException("User not found with id: " + userId)))
+            List<Long> userIds = sessionDto.getUsers().stream().distinct().collect(Collectors.toList());
+            Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+            List<Long> missing = userIds.stream()
+                    .filter(userId -> !users.containsKey(userId))
                     .collect(Collectors.toList());
-            session.setUsers(users);
+            if (missing.size() == 1) {
+                throw new NotFoundException("User not found with id: " + missing.get(0));
+            }
+            if (!missing.isEmpty()) {
+                throw new NotFoundException("Users not found with ids: " + missing.stream()
+                        .map(String::valueOf)
+                        .collect(Collectors.joining(", ")));
+            }
+            session.setUsers(userIds.stream().map(users::get).collect(Collectors.toCollection(LinkedHashSet::new)));
         } else {
-            session.setUsers(Collections.emptyList());
+            session.setUsers(Collections.emptySet());
         }
         
         return session;
     }
 
     public SessionDto toDto(Session session) {
+        // Participants already in memory are reused, otherwise only their ids are read
+        if (session.getUsers() == null || Hibernate.isInitialized(session.getUsers())) {
+            long[] userIds = session.getUsers() == null ? NO_PARTICIPANTS
+                    : session.getUsers().stream().mapToLong(User::getId).toArray();
+            return toDto(session, userIds);
+        }
+        return toDto(session, findParticipantIds(List.of(session.getId())).get(session.getId()));
+    }
+
+    public SessionDto toDto(Session session, long[] participantIds) {
         SessionDto sessionDto = sessionMapper.toDto(session);
         
         // Handle teacher_id
@@ -60,11 +131,8 @@ public class SessionService {
         }
         
         // Handle users
-        if (session.getUsers() != null && !session.getUsers().isEmpty()) {
-            List<Long> userIds = session.getUsers().stream()
-                    .map(User::getId)
-                    .collect(Collectors.toList());
-            sessionDto.setUsers(userIds);
+        if (participantIds != null && participantIds.length > 0) {
+            sessionDto.setUsers(LongStream.of(participantIds).boxed().collect(Collectors.toList()));
         } else {
             sessionDto.setUsers(Collections.emptyList());
         }
@@ -72,54 +140,306 @@ public class SessionService {
         return sessionDto;
     }
 
+    /**
+     * Participant ids per session, grouped from the rows of the join table. Sessions without
+     * participants are absent from the map.
+     */
+    public Map<Long, long[]> findParticipantIds(Collection<Long> sessionIds) {
+        List<Object[]> rows = sessionRepository.findParticipantIds(sessionIds);
+        Map<Long, long[]> participantIds = new HashMap<>();
+        // Rows are ordered by session, so each session is one contiguous run
+        int start = 0;
+        while (start < rows.size()) {
+            long sessionId = ((Number) rows.get(start)[0]).longValue();
+            int end = start;
+            while (end < rows.size() && ((Number) rows.get(end)[0]).longValue() == sessionId) {
+                end++;
+            }
+            long[] userIds = new long[end - start];
+            for (int i = start; i < end; i++) {
+                userIds[i - start] = ((Number) rows.get(i)[1]).longValue();
+            }
+            participantIds.put(sessionId, userIds);
+            start = end;
+        }
+        return participantIds;
+    }
+
+    @Transactional
     public void delete(Long id) {
         getById(id); // Verify session exists
         sessionRepository.deleteById(id);
+        collectionVersionRepository.bump(CollectionVersion.SESSIONS);
+        eventPublisher.publishEvent(new SessionChangedEvent(SessionChangedEvent.Type.DELETED, id));
     }
 
     public List<Session> findAll() {
         return sessionRepository.findAll();
     }
 
+    /**
+     * Returns one page of sessions in (date, id) order. The cursor of the next page encodes
+     * the position of the last row, so each page is an index range scan whatever its offset.
+     */
+    @Transactional(readOnly = true)
+    public SessionPage findPage(SessionFilter filter) {
+        int size = filter.getSize() != null ? filter.getSize() : defaultPageSize;
+        if (size < 1 || size > maxPageSize) {
+            throw new BadRequestException("Page size must be between 1 and " + maxPageSize);
+        }
+
+        Date from = startOfDay(filter.getFrom());
+        if (filter.isUpcoming() && (from == null || from.before(new Date()))) {
+            from = new Date();
+        }
+        Date to = filter.getTo() != null ? startOfDay(filter.getTo().plusDays(1)) : null;
+
+        Date afterDate = null;
+        Long afterId = null;
+        if (filter.getCursor() != null && !filter.getCursor().isBlank()) {
+            long[] position = decodeCursor(filter.getCursor());
+            afterDate = new Date(position[0]);
+            afterId = position[1];
+        }
+
+        // One extra row tells whether there is a next page
+        List<Session> sessions = sessionRepository.findPage(filter.getTeacherId(), from, to, afterDate, afterId,
+                Limit.of(size + 1));
+        List<Session> page = sessions.size() > size ? sessions.subList(0, size) : sessions;
+        Map<Long, long[]> participantIds = page.isEmpty() ? Collections.emptyMap()
+                : findParticipantIds(page.stream().map(Session::getId).collect(Collectors.toList()));
+        return new SessionPage(page, participantIds, sessions.size() > size ? encodeCursor(page.get(size - 1)) : null);
+    }
+
+    /**
+     * Sessions of the days from {@code from} to {@code to} inclusive, grouped by day; days without
+     * sessions are left out. The range is bounded, so the cost does not grow with the history.
+     */
+    @Transactional(readOnly = true)
+    public List<CalendarDayResponse> findCalendar(LocalDate from, LocalDate to, Long teacherId) {
+        if (to.isBefore(from)) {
+            throw new BadRequestException("The range must not end before it starts");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= calendarMaxDays) {
+            throw new BadRequestException("The range must not exceed " + calendarMaxDays + " days");
+        }
+
+        Map<LocalDate, List<CalendarSessionResponse>> days = new LinkedHashMap<>();
+        for (CalendarSessionResponse session : sessionRepository.findCalendar(startOfDay(from),
+                startOfDay(to.plusDays(1)), teacherId)) {
+            LocalDate day = session.getDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+            days.computeIfAbsent(day, key -> new ArrayList<>()).add(session);
+        }
+        return days.entrySet().stream()
+                .map(entry -> new CalendarDayResponse(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Strong ETag of a session, read without loading it. Empty when the session does not exist.
+     */
+    public Optional<String> findETag(Long id) {
+        return sessionRepository.findRevisionById(id).map(revision -> eTag(id, revision));
+    }
+
+    /**
+     * Same ETag as {@link #findETag(Long)}, for a session that is already loaded.
+     */
+    public String eTagOf(Session session) {
+        return eTag(session.getId(), session.getRevision());
+    }
+
+    private static String eTag(Long id, long revision) {
+        return "session-" + id + "-" + revision;
+    }
+
+    /**
+     * ETag of a page of the session list: the collection version, read from a single row, and the
+     * query parameters. Upcoming pages also change with the clock alone, when the next session
+     * starts, so its start is part of their ETag.
+     */
+    public String getCollectionETag(SessionFilter filter) {
+        String eTag = "sessions-" + collectionVersionRepository.findVersion(CollectionVersion.SESSIONS).orElse(0L)
+                + "-" + Integer.toHexString(filter.hashCode());
+        if (!filter.isUpcoming()) {
+            return eTag;
+        }
+        Date nextStart = sessionRepository.findNextStart(new Date());
+        return eTag + "-" + (nextStart != null ? nextStart.getTime() : "none");
+    }
+
     public Session getById(Long id) {
-        return sessionRepository.findById(id)
+        return sessionRepository.findWithTeacherById(id)
                 .orElseThrow(() -> new NotFoundException("Session not found"));
     }
 
+    @Transactional
     public Session update(Long id, Session session) {
         getById(id); // Verify session exists
+        // The participant list is replaced as a whole, so it must fit the new capacity
+        checkCapacity(session);
         session.setId(id);
-        return sessionRepository.save(session);
+        Session saved = sessionRepository.save(session);
+        sessionRepository.syncParticipantCount(id);
+        waitlistEntryRepository.deleteEnrolled(List.of(id));
+        // The capacity may have grown or participants may have been removed
+        promoteFromWaitlist(id);
+        collectionVersionRepository.bump(CollectionVersion.SESSIONS);
+        eventPublisher.publishEvent(new SessionChangedEvent(SessionChangedEvent.Type.UPDATED, id));
+        return saved;
     }
 
+    /**
+     * Books a seat with a conditional counter update, then records the participant. The row lock
+     * taken by the update is held only for the two statements; any failure rolls the seat back.
+     */
+    @Transactional
     public void participate(Long id, Long userId) {
-        Session session = getById(id);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User not found"));
+        if (sessionRepository.reserveSeat(id) == 0) {
+            if (!sessionRepository.existsById(id)) {
+                throw new NotFoundException("Session not found");
+            }
+            if (sessionRepository.countParticipant(id, userId) > 0) {
+                throw new BadRequestException("User is already participating in this session");
+            }
+            throw new BadRequestException("Session is full");
+        }
 
-        boolean alreadyParticipate = session.getUsers().stream()
-                .anyMatch(u -> u.getId().equals(userId));
-        if (alreadyParticipate) {
+        int inserted;
+        try {
+            inserted = sessionRepository.addParticipant(id, userId);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request enrolled the same user first
             throw new BadRequestException("User is already participating in this session");
         }
-
-        session.getUsers().add(user);
-        sessionRepository.save(session);
+        if (inserted == 0) {
+            if (!userRepository.existsById(userId)) {
+                throw new NotFoundException("User not found");
+            }
+            throw new BadRequestException("User is already participating in this session");
+        }
+        collectionVersionRepository.bump(CollectionVersion.SESSIONS);
+        eventPublisher.publishEvent(new SessionChangedEvent(SessionChangedEvent.Type.PARTICIPANTS_CHANGED, id));
     }
 
+    @Transactional
     public void noLongerParticipate(Long id, Long userId) {
-        Session session = getById(id);
+        noLongerParticipate(id, List.of(userId));
+    }
 
-        boolean alreadyParticipate = session.getUsers().stream()
-                .anyMatch(u -> u.getId().equals(userId));
-        if (!alreadyParticipate) {
+    /**
+     * Cancels several participations at once, e.g. when a session is rescheduled, and fills the
+     * freed seats from the waitlist with one round of bulk statements. Returns the number removed.
+     */
+    @Transactional
+    public int noLongerParticipate(Long id, Collection<Long> userIds) {
+        // Lock the session row before touching participants, in the same order as bookings
+        if (sessionRepository.lockFreeSeats(id) == null) {
+            throw new NotFoundException("Session not found");
+        }
+        int removed = sessionRepository.removeParticipants(id, userIds);
+        if (removed == 0) {
             throw new BadRequestException("User is not participating in this session");
         }
+        sessionRepository.releaseSeats(id, removed);
+        promoteFromWaitlist(id);
+        collectionVersionRepository.bump(CollectionVersion.SESSIONS);
+        eventPublisher.publishEvent(new SessionChangedEvent(SessionChangedEvent.Type.PARTICIPANTS_CHANGED, id));
+        return removed;
+    }
+
+    /**
+     * Moves users from the head of the waitlist into the free seats. Returns the number promoted.
+     */
+    @Transactional
+    public int promoteFromWaitlist(Long id) {
+        Integer freeSeats = sessionRepository.lockFreeSeats(id);
+        if (freeSeats == null || freeSeats <= 0) {
+            return 0;
+        }
+        List<Long> entryIds = waitlistEntryRepository.findHeadIds(id, Limit.of(freeSeats));
+        if (entryIds.isEmpty()) {
+            return 0;
+        }
+        int promoted = sessionRepository.addWaitlisted(entryIds);
+        waitlistEntryRepository.deleteByIds(entryIds);
+        if (promoted > 0) {
+            sessionRepository.takeSeats(id, promoted);
+            collectionVersionRepository.bump(CollectionVersion.SESSIONS);
+        }
+        return promoted;
+    }
+
+    /**
+     * Queues the user for a full session and returns their position.
+     */
+    @Transactional
+    public long joinWaitlist(Long id, Long userId) {
+        // Holding the row lock, no seat can be freed and promoted before the entry exists
+        Integer freeSeats = sessionRepository.lockFreeSeats(id);
+        if (freeSeats == null) {
+            throw new NotFoundException("Session not found");
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("User not found");
+        }
+        if (sessionRepository.countParticipant(id, userId) > 0) {
+            throw new BadRequestException("User is already participating in this session");
+        }
+        if (freeSeats > 0) {
+            throw new BadRequestException("Session has free seats");
+        }
+
+        try {
+            waitlistEntryRepository.save(WaitlistEntry.builder()
+                    .session(sessionRepository.getReferenceById(id))
+                    .user(userRepository.getReferenceById(userId))
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            throw new BadRequestException("User is already on the waitlist");
+        }
+        return getWaitlistPosition(id, userId);
+    }
 
-        session.setUsers(session.getUsers().stream()
-                .filter(user -> !user.getId().equals(userId))
-                .collect(Collectors.toList()));
+    @Transactional(readOnly = true)
+    public long getWaitlistPosition(Long id, Long userId) {
+        Long entryId = waitlistEntryRepository.findIdBySessionIdAndUserId(id, userId)
+                .orElseThrow(() -> new NotFoundException("User is not on the waitlist"));
+        return waitlistEntryRepository.countAhead(id, entryId) + 1;
+    }
+
+    public void leaveWaitlist(Long id, Long userId) {
+        if (waitlistEntryRepository.deleteBySessionIdAndUserId(id, userId) == 0) {
+            throw new NotFoundException("User is not on the waitlist");
+        }
+    }
 
-        sessionRepository.save(session);
+    private static void checkCapacity(Session session) {
+        if (session.getMaxParticipants() != null && session.getUsers() != null
+                && session.getUsers().size() > session.getMaxParticipants()) {
+            throw new BadRequestException("Session has more participants than seats");
+        }
+    }
+
+    private static Date startOfDay(LocalDate day) {
+        return day != null ? Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant()) : null;
+    }
+
+    private static String encodeCursor(Session last) {
+        String position = last.getDate().getTime() + ":" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf(':');
+            return new long[]{
+                    Long.parseLong(position.substring(0, separator)),
+                    Long.parseLong(position.substring(separator + 1))
+            };
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
     }
 }
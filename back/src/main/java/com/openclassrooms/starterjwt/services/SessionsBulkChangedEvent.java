@@ -0,0 +1,10 @@
+package com.openclassrooms.starterjwt.services;
+
+import java.util.List;
+
+/**
+ * Published by {@link SessionBulkService} once per import, in place of one {@link SessionChangedEvent}
+ * per session: stream clients receive one message and caches are flushed once.
+ */
+public record SessionsBulkChangedEvent(List<Long> createdIds, List<Long> updatedIds) {
+}
@@ -0,0 +1,37 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.Teacher;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Refreshes the {@link TeacherDirectory} once a write to a teacher has committed.
+ */
+public class TeacherChangeListener {
+    // Resolved on use: the listener is built with the entity manager factory the directory depends on
+    private final ObjectProvider<TeacherDirectory> teacherDirectory;
+
+    public TeacherChangeListener(ObjectProvider<TeacherDirectory> teacherDirectory) {
+        this.teacherDirectory = teacherDirectory;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onChange(Teacher teacher) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            teacherDirectory.getObject().refresh();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                teacherDirectory.getObject().refresh();
+            }
+        });
+    }
+}
@@ -0,0 +1,86 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.mapper.TeacherMapper;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The whole teachers table held as an immutable snapshot, with the JSON of GET /api/teacher
+ * serialised once per snapshot. Reads never lock; a refresh builds a new snapshot and swaps it in.
+ * Changes made through this node are applied after commit by {@link TeacherChangeListener}, other
+ * changes, including direct SQL edits, on the next scheduled refresh. A refresh always reloads the
+ * rows (the table is small) and keeps the current snapshot when their JSON has not changed.
+ * <p>
+ * The teachers of a snapshot are shared between readers and must not be modified.
+ */
+@Slf4j
+@Component
+public class TeacherDirectory {
+    private final TeacherRepository teacherRepository;
+    private final TeacherMapper teacherMapper;
+    private final ObjectMapper objectMapper;
+
+    private final Object lock = new Object();
+    private volatile Snapshot snapshot = new Snapshot("", Map.of(), List.of(), "[]".getBytes(StandardCharsets.UTF_8));
+
+    public record Snapshot(String version, Map<Long, Teacher> byId, List<Teacher> teachers, byte[] json) {
+        public String eTag() {
+            return "teachers-" + version;
+        }
+    }
+
+    public TeacherDirectory(TeacherRepository teacherRepository, TeacherMapper teacherMapper, ObjectMapper objectMapper) {
+        this.teacherRepository = teacherRepository;
+        this.teacherMapper = teacherMapper;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${oc.app.teacherDirectoryRefreshMs:60000}")
+    public void refresh() {
+        synchronized (lock) {
+            List<Teacher> teachers = List.copyOf(teacherRepository.findAll(Sort.by("id")));
+            byte[] json = serialize(teachers);
+            // The version is a hash of the content, so the ETag only moves when the list does
+            String version = DigestUtils.md5DigestAsHex(json);
+            if (version.equals(snapshot.version())) {
+                return;
+            }
+            Map<Long, Teacher> byId = teachers.stream()
+                    .collect(Collectors.toUnmodifiableMap(Teacher::getId, Function.identity()));
+            snapshot = new Snapshot(version, byId, teachers, json);
+            log.debug("Loaded {} teachers at version {}", teachers.size(), version);
+        }
+    }
+
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    public Optional<Teacher> find(Long id) {
+        return Optional.ofNullable(snapshot.byId().get(id));
+    }
+
+    private byte[] serialize(List<Teacher> teachers) {
+        try {
+            return objectMapper.writeValueAsBytes(teacherMapper.toDto(teachers));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Teachers cannot be serialised", e);
+        }
+    }
+}
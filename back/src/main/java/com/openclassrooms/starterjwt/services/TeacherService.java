@@ -12,13 +12,16 @@ import java.util.List;
 @RequiredArgsConstructor
 public class TeacherService {
     private final TeacherRepository teacherRepository;
+    private final TeacherDirectory teacherDirectory;
 
     public List<Teacher> findAll() {
-        return teacherRepository.findAll();
+        return teacherDirectory.snapshot().teachers();
     }
 
     public Teacher findById(Long id) {
-        return teacherRepository.findById(id)
+        // A teacher added on another node is found in the table until the next refresh
+        return teacherDirectory.find(id)
+                .or(() -> teacherRepository.findById(id))
                 .orElseThrow(() -> new NotFoundException("Teacher not found"));
     }
 }
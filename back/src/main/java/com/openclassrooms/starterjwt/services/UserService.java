@@ -4,21 +4,37 @@ import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import com.openclassrooms.starterjwt.security.services.ActiveAccountCache;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.ZoneId;
 import java.util.Objects;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
     private final UserRepository userRepository;
+    private final ActiveAccountCache activeAccountCache;
+    private final UserDetailsCache userDetailsCache;
+    private final TokenRevocationList tokenRevocationList;
 
     public User findById(Long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("User not found"));
     }
 
+    /**
+     * Strong ETag of a user, read without loading it. Empty when the user does not exist.
+     */
+    public Optional<String> findETag(Long id) {
+        return userRepository.findUpdatedAtById(id)
+                .map(updatedAt -> "user-" + id + "-" + updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
     public void delete(Long id, String currentUserEmail) {
         User user = findById(id);
         
@@ -27,5 +43,8 @@ public class UserService {
         }
         
         userRepository.deleteById(id);
+        activeAccountCache.markDeleted(id);
+        tokenRevocationList.revokeUser(id);
+        userDetailsCache.invalidate(user.getEmail());
     }
 }
@@ -0,0 +1,6 @@
+-- GET /api/session/search
+create fulltext index ft_sessions_name_description on sessions (name, description);
+
+-- GET /api/session/calendar: a range scan on the date, optionally filtered on the teacher in the index;
+-- name and seat counts are then read from each matching row by primary key
+create index ix_sessions_date_teacher_id on sessions (date, teacher_id);
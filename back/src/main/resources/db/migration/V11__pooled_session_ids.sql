@@ -0,0 +1,8 @@
+-- Session ids now come from a pooled generator so that inserts can be batched. MySQL has no
+-- sequences: Hibernate keeps the next block in this table. The first block starts above the
+-- existing ids; the auto_increment attribute of sessions.id is kept and no longer used.
+create table sessions_seq (
+    next_val bigint
+) engine = InnoDB;
+
+insert into sessions_seq (next_val) select coalesce(max(id), 0) + 51 from sessions;
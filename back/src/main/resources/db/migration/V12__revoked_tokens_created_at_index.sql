@@ -0,0 +1,2 @@
+-- Incremental refreshes of the revocation filter read the rows created since the last one
+create index ix_revoked_tokens_created_at on revoked_tokens (created_at);
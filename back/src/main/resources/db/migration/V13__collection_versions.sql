@@ -0,0 +1,7 @@
+-- One row per collection, bumped by every write to it; list ETags read it instead of the table
+create table collection_versions (
+    name varchar(32) not null primary key,
+    version bigint not null
+) engine = InnoDB;
+
+insert into collection_versions (name, version) values ('sessions', 0);
@@ -0,0 +1,46 @@
+-- Schema of the original application, as ddl-auto: update created it. Existing databases are
+-- baselined at this version and upgraded by the following migrations; their constraints carry
+-- generated names, so no later migration refers to a constraint of this file by name.
+
+create table users (
+    id bigint not null auto_increment,
+    admin bit not null,
+    created_at timestamp default current_timestamp,
+    email varchar(50) not null,
+    first_name varchar(20) not null,
+    last_name varchar(20) not null,
+    password varchar(120) not null,
+    updated_at timestamp default current_timestamp,
+    primary key (id),
+    constraint uk_users_email unique (email)
+) engine = InnoDB;
+
+create table teachers (
+    id bigint not null auto_increment,
+    created_at timestamp default current_timestamp,
+    first_name varchar(20) not null,
+    last_name varchar(20) not null,
+    updated_at timestamp default current_timestamp,
+    primary key (id)
+) engine = InnoDB;
+
+-- The teacher was mapped one-to-one, which made teacher_id unique
+create table sessions (
+    id bigint not null auto_increment,
+    created_at timestamp default current_timestamp,
+    date datetime(6) not null,
+    description varchar(2500) not null,
+    name varchar(50) not null,
+    updated_at timestamp default current_timestamp,
+    teacher_id bigint,
+    primary key (id),
+    constraint uk_sessions_teacher_id unique (teacher_id),
+    constraint fk_sessions_teacher foreign key (teacher_id) references teachers (id)
+) engine = InnoDB;
+
+create table participate (
+    session_id bigint not null,
+    user_id bigint not null,
+    constraint fk_participate_session foreign key (session_id) references sessions (id),
+    constraint fk_participate_user foreign key (user_id) references users (id)
+) engine = InnoDB;
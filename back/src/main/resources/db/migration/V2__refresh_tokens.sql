@@ -0,0 +1,15 @@
+-- Rotating refresh tokens, stored as SHA-256 hashes
+create table refresh_tokens (
+    id bigint not null auto_increment,
+    created_at timestamp default current_timestamp,
+    expires_at datetime(6) not null,
+    family_id varchar(36) not null,
+    revoked bit not null,
+    token_hash varchar(64) not null,
+    user_id bigint not null,
+    primary key (id),
+    constraint ux_refresh_tokens_token_hash unique (token_hash),
+    index ix_refresh_tokens_family_id (family_id),
+    index ix_refresh_tokens_expires_at (expires_at),
+    constraint fk_refresh_tokens_user foreign key (user_id) references users (id) on delete cascade
+) engine = InnoDB;
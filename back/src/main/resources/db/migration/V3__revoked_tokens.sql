@@ -0,0 +1,10 @@
+-- Revoked access tokens (jti) and accounts ("user:<id>"), mirrored in a per-node Bloom filter
+create table revoked_tokens (
+    id bigint not null auto_increment,
+    created_at timestamp default current_timestamp,
+    expires_at datetime(6) not null,
+    token_id varchar(64) not null,
+    primary key (id),
+    constraint ux_revoked_tokens_token_id unique (token_id),
+    index ix_revoked_tokens_expires_at (expires_at)
+) engine = InnoDB;
@@ -0,0 +1,2 @@
+-- Keyset pagination of GET /api/session on (date, id)
+create index ix_sessions_date_id on sessions (date, id);
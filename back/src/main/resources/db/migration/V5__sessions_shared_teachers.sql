@@ -0,0 +1,16 @@
+-- A teacher now gives many sessions. The unique key of the former one-to-one mapping has a
+-- generated name on databases created by Hibernate, so it is looked up before being dropped;
+-- the foreign key keeps its own index on teacher_id.
+create index ix_sessions_teacher_id on sessions (teacher_id);
+
+set @unique_teacher = (
+    select index_name from information_schema.statistics
+    where table_schema = database() and table_name = 'sessions'
+    group by index_name
+    having min(non_unique) = 0 and count(*) = 1 and max(column_name) = 'teacher_id'
+    limit 1);
+set @drop_unique_teacher = if(@unique_teacher is null, 'do 0',
+    concat('alter table sessions drop index `', @unique_teacher, '`'));
+prepare drop_unique_teacher from @drop_unique_teacher;
+execute drop_unique_teacher;
+deallocate prepare drop_unique_teacher;
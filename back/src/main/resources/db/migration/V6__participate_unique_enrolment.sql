@@ -0,0 +1,11 @@
+-- A user is enrolled at most once per session. The join table had no key, so duplicate rows
+-- are numbered with a temporary column, collapsed, and (session_id, user_id) becomes the
+-- primary key, which InnoDB clusters the rows on.
+alter table participate add column duplicate_id bigint not null auto_increment primary key;
+
+delete p from participate p
+join participate kept on kept.session_id = p.session_id and kept.user_id = p.user_id
+    and kept.duplicate_id < p.duplicate_id;
+
+-- One statement, so the table is never left without a primary key
+alter table participate drop column duplicate_id, add primary key (session_id, user_id);
@@ -0,0 +1,8 @@
+-- Optional capacity and the seat counter maintained by the booking statements
+alter table sessions
+    add column max_participants integer,
+    add column participant_count int not null default 0;
+
+-- Existing participants are counted once; bookings keep the counter up to date from here on
+update sessions s
+set participant_count = (select count(*) from participate p where p.session_id = s.id);
@@ -0,0 +1,12 @@
+-- Users queued for a full session, in id order
+create table waitlist_entries (
+    id bigint not null auto_increment,
+    created_at timestamp default current_timestamp,
+    session_id bigint not null,
+    user_id bigint not null,
+    primary key (id),
+    constraint ux_waitlist_entries_session_user unique (session_id, user_id),
+    index ix_waitlist_entries_session_id (session_id, id),
+    constraint fk_waitlist_entries_session foreign key (session_id) references sessions (id) on delete cascade,
+    constraint fk_waitlist_entries_user foreign key (user_id) references users (id) on delete cascade
+) engine = InnoDB;
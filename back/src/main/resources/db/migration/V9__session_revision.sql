@@ -0,0 +1,2 @@
+-- Bumped by every statement that changes a session or its participants; used for ETags
+alter table sessions add column revision bigint not null default 0;
@@ -1,10 +1,16 @@
 package com.openclassrooms.starterjwt.integration;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.payload.request.RefreshRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
+import com.openclassrooms.starterjwt.repository.RefreshTokenRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,8 +20,10 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -30,14 +38,21 @@ public class AuthControllerIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @BeforeEach
     void setUp() {
+        refreshTokenRepository.deleteAll();
         userRepository.deleteAll();
     }
 
@@ -76,6 +91,141 @@ public class AuthControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.admin").value(false));
     }
 
+    @Test
+    void testLogin_LoadsUserWithSingleStatement() throws Exception {
+        // Given
+        User user = User.builder()
+                .email("count@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .password(passwordEncoder.encode("password123"))
+                .admin(true)
+                .build();
+        userRepository.save(user);
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("count@example.com");
+        loginRequest.setPassword("password123");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.admin").value(true));
+
+        // Then - one SELECT for the user, no second lookup for the admin flag, plus the refresh token INSERT
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testRefresh_RotatesToken() throws Exception {
+        // Given
+        String refreshToken = loginAndGetRefreshToken("refresh@example.com");
+
+        // When & Then
+        String body = refresh(refreshToken)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").exists())
+                .andExpect(jsonPath("$.username").value("refresh@example.com"))
+                .andExpect(jsonPath("$.refreshToken").exists())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(objectMapper.readTree(body).get("refreshToken").asText()).isNotEqualTo(refreshToken);
+    }
+
+    @Test
+    void testRefresh_ReuseRevokesFamily() throws Exception {
+        // Given
+        String refreshToken = loginAndGetRefreshToken("reuse@example.com");
+        String body = refresh(refreshToken)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String rotatedToken = objectMapper.readTree(body).get("refreshToken").asText();
+
+        // When - the first token is presented again
+        refresh(refreshToken)
+                .andExpect(status().isUnauthorized());
+
+        // Then - the token issued by the rotation is no longer valid either
+        refresh(rotatedToken)
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testRefresh_UnknownToken() throws Exception {
+        refresh("unknown-token")
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("Invalid refresh token"));
+    }
+
+    @Test
+    void testLogout_RevokesAccessAndRefreshTokens() throws Exception {
+        // Given
+        String body = login("logout@example.com");
+        JsonNode json = objectMapper.readTree(body);
+        String accessToken = json.get("token").asText();
+        String refreshToken = json.get("refreshToken").asText();
+        long userId = json.get("id").asLong();
+
+        mockMvc.perform(get("/api/user/" + userId)
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        RefreshRequest refreshRequest = new RefreshRequest();
+        refreshRequest.setRefreshToken(refreshToken);
+
+        // When
+        mockMvc.perform(post("/api/auth/logout")
+                        .header("Authorization", "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(refreshRequest)))
+                .andExpect(status().isOk());
+
+        // Then
+        mockMvc.perform(get("/api/user/" + userId)
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isUnauthorized());
+        refresh(refreshToken)
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String loginAndGetRefreshToken(String email) throws Exception {
+        return objectMapper.readTree(login(email)).get("refreshToken").asText();
+    }
+
+    private String login(String email) throws Exception {
+        userRepository.save(User.builder()
+                .email(email)
+                .firstName("John")
+                .lastName("Doe")
+                .password(passwordEncoder.encode("password123"))
+                .admin(false)
+                .build());
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail(email);
+        loginRequest.setPassword("password123");
+
+        return mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        RefreshRequest refreshRequest = new RefreshRequest();
+        refreshRequest.setRefreshToken(refreshToken);
+        return mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(refreshRequest)));
+    }
+
     @Test
     void testLogin_InvalidCredentials() throws Exception {
         // Given
@@ -0,0 +1,116 @@
+package com.openclassrooms.starterjwt.integration;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the migrations on MySQL, as production does, and lets Hibernate validate the entities
+ * against the result. The context starts on a database holding the original schema and data, as
+ * ddl-auto: update left it, which Flyway baselines and upgrades. Skipped without Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class FlywayMigrationIntegrationTest extends BaseIntegrationTest {
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+            .withUsername("root")
+            .withPassword("test");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Flyway flyway;
+
+    @DynamicPropertySource
+    static void mysqlProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "com.mysql.cj.jdbc.Driver");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.MySQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("oc.app.sessionSearchIndex", () -> "fulltext");
+    }
+
+    @BeforeAll
+    static void createOriginalDatabase() throws Exception {
+        // Runs before the context, so Flyway finds a populated schema without history
+        try (Connection connection = DriverManager.getConnection(MYSQL.getJdbcUrl(), MYSQL.getUsername(),
+                MYSQL.getPassword())) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/V1__baseline.sql"));
+            connection.createStatement().executeUpdate("insert into teachers (id, first_name, last_name) values (1, 'John', 'Doe')");
+            connection.createStatement().executeUpdate("insert into users (id, admin, email, first_name, last_name, password) "
+                    + "values (1, false, 'user@example.com', 'Jane', 'Smith', 'hash')");
+            connection.createStatement().executeUpdate("insert into sessions (id, date, description, name, teacher_id) "
+                    + "values (7, now(), 'Existing session', 'Yoga', 1)");
+            // The original join table accepted the same enrolment twice
+            connection.createStatement().executeUpdate("insert into participate (session_id, user_id) values (7, 1), (7, 1)");
+        }
+    }
+
+    @Test
+    void testUpgrade_BaselinedDatabaseReachesLatestVersion() {
+        // The context started, so Hibernate has validated the upgraded schema
+        assertThat(flyway.info().current().getVersion().getVersion())
+                .isEqualTo(lastMigrationVersion());
+
+        // Duplicate enrolments were collapsed and counted once; pooled ids start above the existing ones
+        assertThat(jdbcTemplate.queryForObject("select count(*) from participate", Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select participant_count from sessions where id = 7", Integer.class))
+                .isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select next_val from sessions_seq", Long.class)).isEqualTo(58L);
+        assertThat(jdbcTemplate.queryForObject("select version from collection_versions where name = 'sessions'",
+                Long.class)).isZero();
+
+        // Sessions now share teachers
+        jdbcTemplate.update("insert into sessions (id, date, description, name, teacher_id) values (8, now(), 'Second', 'Pilates', 1)");
+    }
+
+    @Test
+    void testMigrate_EmptyDatabaseReachesSameSchema() {
+        // Given
+        Flyway fresh = Flyway.configure()
+                .dataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword())
+                .schemas("fresh")
+                .load();
+
+        // When
+        MigrateResult result = fresh.migrate();
+
+        // Then - the same tables and columns as the upgraded database
+        assertThat(result.targetSchemaVersion).isEqualTo(lastMigrationVersion());
+        assertThat(columns("fresh")).isEqualTo(columns(MYSQL.getDatabaseName()));
+    }
+
+    private String lastMigrationVersion() {
+        MigrationInfo[] migrations = flyway.info().all();
+        return migrations[migrations.length - 1].getVersion().getVersion();
+    }
+
+    private List<Map<String, Object>> columns(String schema) {
+        return jdbcTemplate.queryForList("select table_name, column_name, column_type, is_nullable, column_default "
+                + "from information_schema.columns where table_schema = ? and table_name <> 'flyway_schema_history' "
+                + "order by table_name, column_name", schema);
+    }
+}
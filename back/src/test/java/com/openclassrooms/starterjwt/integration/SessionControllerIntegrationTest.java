@@ -10,6 +10,11 @@ import com.openclassrooms.starterjwt.repository.TeacherRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.services.SessionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,10 +27,20 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -57,6 +72,12 @@ public class SessionControllerIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SessionService sessionService;
+
     private Teacher testTeacher;
     private User testUser;
     private Session testSession;
@@ -92,7 +113,7 @@ public class SessionControllerIntegrationTest extends BaseIntegrationTest {
                 .date(new Date())
                 .description("Test session description")
                 .teacher(testTeacher)
-                .users(new ArrayList<>())
+                .users(new HashSet<>())
                 .build();
         testSession = sessionRepository.save(testSession);
 
@@ -108,6 +129,14 @@ public class SessionControllerIntegrationTest extends BaseIntegrationTest {
         authToken = jwtUtils.generateJwtToken(authentication);
     }
 
+    @AfterEach
+    void tearDown() {
+        // Participants and waitlist entries reference users; later test classes delete only users
+        sessionRepository.deleteAll();
+        userRepository.deleteAll();
+        teacherRepository.deleteAll();
+    }
+
     @Test
     void testFindAll_Success() throws Exception {
         // When & Then - testSession is already created in setUp
@@ -121,6 +150,353 @@ public class SessionControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$[0].id").value(testSession.getId()));
     }
 
+    @Test
+    void testFindAll_KeysetPagination() throws Exception {
+        // Given - five sessions one day apart, the setUp one is today
+        long day = 24L * 60 * 60 * 1000;
+        for (int i = 1; i <= 4; i++) {
+            sessionRepository.save(Session.builder()
+                    .name("Later " + i)
+                    .date(new Date(testSession.getDate().getTime() + i * day))
+                    .description("Later session")
+                    .teacher(testTeacher)
+                    .users(new HashSet<>())
+                    .build());
+        }
+
+        // When - walk the pages following the cursor header
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = get("/api/session")
+                    .header("Authorization", "Bearer " + authToken)
+                    .param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            var response = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+            for (var node : objectMapper.readTree(response.getContentAsString())) {
+                names.add(node.get("name").asText());
+            }
+            cursor = response.getHeader("X-Next-Cursor");
+            pages++;
+        } while (cursor != null);
+
+        // Then
+        assertThat(pages).isEqualTo(3);
+        assertThat(names).containsExactly(testSessionName, "Later 1", "Later 2", "Later 3", "Later 4");
+    }
+
+    @Test
+    void testFindAll_FiltersByTeacherAndUpcoming() throws Exception {
+        // Given
+        Teacher otherTeacher = teacherRepository.save(Teacher.builder().firstName("Other").lastName("Teacher").build());
+        sessionRepository.save(Session.builder()
+                .name("Past")
+                .date(new Date(System.currentTimeMillis() - 7L * 24 * 60 * 60 * 1000))
+                .description("Past session")
+                .teacher(testTeacher)
+                .users(new HashSet<>())
+                .build());
+        sessionRepository.save(Session.builder()
+                .name("Other teacher")
+                .date(new Date(System.currentTimeMillis() + 24L * 60 * 60 * 1000))
+                .description("Other session")
+                .teacher(otherTeacher)
+                .users(new HashSet<>())
+                .build());
+
+        // When & Then
+        mockMvc.perform(get("/api/session")
+                        .header("Authorization", "Bearer " + authToken)
+                        .param("teacherId", String.valueOf(otherTeacher.getId()))
+                        .param("upcoming", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Other teacher"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void testFindAll_StatementCountDoesNotGrowWithPageSize() throws Exception {
+        // Given - sessions with several participants each
+        List<User> participants = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            participants.add(userRepository.save(User.builder()
+                    .email("participant" + i + "@example.com")
+                    .firstName("Part")
+                    .lastName("Icipant")
+                    .password("password")
+                    .admin(false)
+                    .build()));
+        }
+        for (int i = 1; i <= 10; i++) {
+            Teacher teacher = teacherRepository.save(Teacher.builder().firstName("Teacher").lastName("T" + i).build());
+            sessionRepository.save(Session.builder()
+                    .name("Session " + i)
+                    .date(new Date(testSession.getDate().getTime() + i * 1000L))
+                    .description("Session with participants")
+                    .teacher(teacher)
+                    .users(new HashSet<>(participants))
+                    .build());
+        }
+
+        // When
+        long smallPage = countStatements(get("/api/session").param("size", "2"));
+        long largePage = countStatements(get("/api/session").param("size", "10"));
+
+        // Then - user lookup for authentication, the collection version for the ETag, the page with
+        // its teachers, the participant ids
+        assertThat(largePage).isEqualTo(smallPage);
+        assertThat(largePage).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void testFindById_ReadsParticipantIdsOnly() throws Exception {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            testSession.getUsers().add(userRepository.save(User.builder()
+                    .email("attendee" + i + "@example.com")
+                    .firstName("At")
+                    .lastName("Tendee")
+                    .password("password")
+                    .admin(false)
+                    .build()));
+        }
+        sessionRepository.save(testSession);
+
+        // When
+        long statements = countStatements(get("/api/session/{id}", testSession.getId()));
+
+        // Then - user lookup for authentication, the session with its teacher, the participant ids
+        assertThat(statements).isLessThanOrEqualTo(3);
+        // No participant is hydrated: at most the authenticated user, the session and its teacher
+        assertThat(entityManagerFactory.unwrap(SessionFactory.class).getStatistics().getEntityLoadCount())
+                .isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void testCalendar_ReturnsDayBuckets() throws Exception {
+        // Given - testSession is today; one session next week with another teacher, one far outside the range
+        Teacher otherTeacher = teacherRepository.save(Teacher.builder().firstName("Other").lastName("Teacher").build());
+        LocalDate today = LocalDate.now();
+        Session nextWeek = sessionRepository.save(Session.builder()
+                .name("Pilates")
+                .date(Date.from(today.plusDays(7).atTime(10, 0).atZone(ZoneId.systemDefault()).toInstant()))
+                .description("Core")
+                .teacher(otherTeacher)
+                .maxParticipants(12)
+                .build());
+        sessionRepository.save(Session.builder()
+                .name("Old class")
+                .date(Date.from(today.minusYears(1).atStartOfDay(ZoneId.systemDefault()).toInstant()))
+                .description("History")
+                .teacher(otherTeacher)
+                .build());
+
+        // When & Then
+        mockMvc.perform(get("/api/session/calendar")
+                        .param("from", today.toString())
+                        .param("to", today.plusDays(7).toString())
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].day").value(today.toString()))
+                .andExpect(jsonPath("$[0].sessions[0].id").value(testSession.getId()))
+                .andExpect(jsonPath("$[0].sessions[0].teacher_id").value(testTeacher.getId()))
+                .andExpect(jsonPath("$[1].day").value(today.plusDays(7).toString()))
+                .andExpect(jsonPath("$[1].sessions[0].id").value(nextWeek.getId()))
+                .andExpect(jsonPath("$[1].sessions[0].maxParticipants").value(12))
+                .andExpect(jsonPath("$[1].sessions[0].participantCount").value(0));
+
+        mockMvc.perform(get("/api/session/calendar")
+                        .param("from", today.toString())
+                        .param("to", today.plusDays(7).toString())
+                        .param("teacher", String.valueOf(otherTeacher.getId()))
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].sessions[0].id").value(nextWeek.getId()));
+    }
+
+    @Test
+    void testCalendar_RejectsRangeAboveMaximum() throws Exception {
+        mockMvc.perform(get("/api/session/calendar")
+                        .param("from", "2026-01-01")
+                        .param("to", "2026-12-31")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSearch_RanksHighlightsAndPages() throws Exception {
+        // Given
+        Session pilates = sessionRepository.save(Session.builder()
+                .name("Pilates")
+                .date(new Date())
+                .description("Core strength with a little yoga stretching at the end")
+                .teacher(testTeacher)
+                .build());
+        sessionRepository.save(Session.builder()
+                .name("Meditation")
+                .date(new Date())
+                .description("Breathing only")
+                .teacher(testTeacher)
+                .build());
+
+        // When & Then - a match in the name ranks first
+        mockMvc.perform(get("/api/session/search").param("q", "YOGA")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "2"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(testSession.getId()))
+                .andExpect(jsonPath("$[0].teacher_id").value(testTeacher.getId()))
+                .andExpect(jsonPath("$[0].highlightedName").value(testSessionName.replace("Yoga", "<mark>Yoga</mark>")))
+                .andExpect(jsonPath("$[1].id").value(pilates.getId()))
+                .andExpect(jsonPath("$[1].highlightedDescription")
+                        .value("Core strength with a little <mark>yoga</mark> stretching at the end"));
+
+        mockMvc.perform(get("/api/session/search").param("q", "yoga").param("page", "1").param("size", "1")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "2"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(pilates.getId()));
+
+        // A deleted session is no longer found
+        mockMvc.perform(delete("/api/session/{id}", pilates.getId())
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/session/search").param("q", "yoga")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"));
+    }
+
+    @Test
+    void testSearch_RejectsQueryWithoutIndexedWord() throws Exception {
+        mockMvc.perform(get("/api/session/search").param("q", "a b")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    private long countStatements(MockHttpServletRequestBuilder request)
+            throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(request.header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void testFindById_ETagChangesWithParticipants() throws Exception {
+        // Given
+        String eTag = mockMvc.perform(get("/api/session/{id}", testSession.getId())
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(eTag).isNotNull();
+
+        // When & Then - unchanged session
+        mockMvc.perform(get("/api/session/{id}", testSession.getId())
+                        .header("Authorization", "Bearer " + authToken)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // A new participant makes the copy stale
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", testSession.getId(), testUser.getId())
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/session/{id}", testSession.getId())
+                        .header("Authorization", "Bearer " + authToken)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0]").value(testUser.getId()));
+    }
+
+    @Test
+    void testFindAll_ETagAnsweredWithoutLoadingSessions() throws Exception {
+        // Given
+        String eTag = mockMvc.perform(get("/api/session")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        mockMvc.perform(get("/api/session")
+                        .header("Authorization", "Bearer " + authToken)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        // Then
+        assertThat(statistics.getEntityStatistics(Session.class.getName()).getLoadCount()).isZero();
+
+        // Any change to a session changes the list version: a booking
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", testSession.getId(), testUser.getId())
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk());
+        String bookedETag = mockMvc.perform(get("/api/session")
+                        .header("Authorization", "Bearer " + authToken)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // and a deletion
+        mockMvc.perform(delete("/api/session/{id}", testSession.getId())
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/session")
+                        .header("Authorization", "Bearer " + authToken)
+                        .header("If-None-Match", bookedETag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testStream_PushesCommittedChanges() throws Exception {
+        // Given
+        MvcResult stream = mockMvc.perform(get("/api/session/stream")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // When
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", testSession.getId(), testUser.getId())
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk());
+
+        // Then
+        String expected = "\"sessionId\":" + testSession.getId();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!stream.getResponse().getContentAsString().contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(stream.getResponse().getContentAsString())
+                .contains("event:participants_changed")
+                .contains(expected);
+    }
+
+    @Test
+    void testStream_Unauthorized() throws Exception {
+        mockMvc.perform(get("/api/session/stream"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testFindAll_InvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/session")
+                        .header("Authorization", "Bearer " + authToken)
+                        .param("cursor", "garbage"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testFindById_Success() throws Exception {
         // When & Then
@@ -201,6 +577,149 @@ public class SessionControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.description").value("Updated description"));
     }
 
+    @Test
+    void testUpdate_ResolvesUsersInOneQuery() throws Exception {
+        // Given
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            userIds.add(saveUser("member" + i + "@example.com").getId());
+        }
+
+        // When
+        long smallSession = countUpdateStatements(userIds.subList(0, 5));
+        long largeSession = countUpdateStatements(userIds);
+
+        // Then - 15 more members cost at most their 15 join-table inserts, no per-user SELECT
+        assertThat(largeSession - smallSession).isLessThanOrEqualTo(15);
+        assertThat(sessionService.findParticipantIds(List.of(testSession.getId())).get(testSession.getId()))
+                .hasSize(20);
+    }
+
+    @Test
+    void testUpdate_ReportsMissingUsers() throws Exception {
+        // Given
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName("Updated");
+        sessionDto.setDate(new Date());
+        sessionDto.setDescription("Updated description");
+        sessionDto.setTeacher_id(testTeacher.getId());
+        sessionDto.setUsers(List.of(testUser.getId(), 999998L, 999999L));
+
+        // When & Then
+        mockMvc.perform(put("/api/session/{id}", testSession.getId())
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sessionDto)))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Users not found with ids: 999998, 999999"));
+    }
+
+    @Test
+    void testUpdate_RejectsMoreParticipantsThanSeats() throws Exception {
+        // Given
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName("Updated");
+        sessionDto.setDate(new Date());
+        sessionDto.setDescription("Updated description");
+        sessionDto.setTeacher_id(testTeacher.getId());
+        sessionDto.setMaxParticipants(1);
+        sessionDto.setUsers(List.of(testUser.getId(), saveUser("second@example.com").getId()));
+
+        // When & Then
+        mockMvc.perform(put("/api/session/{id}", testSession.getId())
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sessionDto)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Session has more participants than seats"));
+
+        assertThat(sessionService.findParticipantIds(List.of(testSession.getId()))).isEmpty();
+    }
+
+    private long countUpdateStatements(List<Long> userIds) throws Exception {
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName("Large session");
+        sessionDto.setDate(new Date());
+        sessionDto.setDescription("Session with many members");
+        sessionDto.setTeacher_id(testTeacher.getId());
+        sessionDto.setUsers(userIds);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(put("/api/session/{id}", testSession.getId())
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sessionDto)))
+                .andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void testBulk_CreatesAndUpdatesInBatches() throws Exception {
+        // Given
+        List<SessionDto> sessionDtos = new ArrayList<>();
+        SessionDto update = bulkSession("Updated in bulk");
+        update.setId(testSession.getId());
+        update.setUsers(List.of(testUser.getId()));
+        sessionDtos.add(update);
+        for (int i = 0; i < 200; i++) {
+            sessionDtos.add(bulkSession("Bulk " + i));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When & Then
+        mockMvc.perform(post("/api/session/bulk")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sessionDtos)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(201))
+                .andExpect(jsonPath("$[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$[0].id").value(testSession.getId()))
+                .andExpect(jsonPath("$[1].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].id").isNumber())
+                .andExpect(jsonPath("$[200].index").value(200));
+
+        // 201 rows cost a handful of batches, not one statement each
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(40);
+        assertThat(sessionRepository.count()).isEqualTo(201);
+        Session updated = sessionRepository.findById(testSession.getId()).orElseThrow();
+        assertThat(updated.getName()).isEqualTo("Updated in bulk");
+        assertThat(updated.getParticipantCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testBulk_InvalidSessionWritesNothing() throws Exception {
+        // Given
+        SessionDto missingTeacher = bulkSession("No teacher");
+        missingTeacher.setTeacher_id(999999L);
+        SessionDto blankName = bulkSession("");
+
+        // When & Then
+        mockMvc.perform(post("/api/session/bulk")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(bulkSession("Valid"), missingTeacher, blankName))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].status").value("SKIPPED"))
+                .andExpect(jsonPath("$[1].status").value("INVALID"))
+                .andExpect(jsonPath("$[1].errors[0]").value("Teacher not found"))
+                .andExpect(jsonPath("$[2].status").value("INVALID"))
+                .andExpect(jsonPath("$[2].errors[0]").value("name must not be blank"));
+
+        assertThat(sessionRepository.count()).isEqualTo(1);
+    }
+
+    private SessionDto bulkSession(String name) {
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName(name);
+        sessionDto.setDate(new Date());
+        sessionDto.setDescription("Imported session");
+        sessionDto.setTeacher_id(testTeacher.getId());
+        return sessionDto;
+    }
+
     @Test
     void testDelete_Success() throws Exception {
         // When & Then
@@ -222,9 +741,208 @@ public class SessionControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(status().isOk());
 
         // Verify user was added to session
-        Session updatedSession = sessionRepository.findById(testSession.getId()).orElseThrow();
+        Session updatedSession = sessionRepository.findDetailedById(testSession.getId()).orElseThrow();
         assertThat(updatedSession.getUsers()).hasSize(1);
-        assertThat(updatedSession.getUsers().get(0).getId()).isEqualTo(testUser.getId());
+        assertThat(updatedSession.getUsers().iterator().next().getId()).isEqualTo(testUser.getId());
+    }
+
+    @Test
+    void testParticipate_ConcurrentEnrolmentsAreAllKept() throws Exception {
+        // Given
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            userIds.add(userRepository.save(User.builder()
+                    .email("concurrent" + i + "@example.com")
+                    .firstName("Con")
+                    .lastName("Current")
+                    .password("password")
+                    .admin(false)
+                    .build()).getId());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(userIds.size());
+
+        // When - every user enrols at the same time, the first one twice
+        List<Future<Integer>> statuses = new ArrayList<>();
+        List<Long> requests = new ArrayList<>(userIds);
+        requests.add(userIds.get(0));
+        for (Long userId : requests) {
+            statuses.add(executor.submit(() -> mockMvc.perform(
+                            post("/api/session/{id}/participate/{userId}", testSession.getId(), userId)
+                                    .header("Authorization", "Bearer " + authToken))
+                    .andReturn().getResponse().getStatus()));
+        }
+        List<Integer> results = new ArrayList<>();
+        for (Future<Integer> status : statuses) {
+            results.add(status.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(results).filteredOn(status -> status == 200).hasSize(userIds.size());
+        assertThat(results).filteredOn(status -> status == 400).hasSize(1);
+        assertThat(sessionRepository.findParticipantIds(List.of(testSession.getId()))).hasSize(userIds.size());
+    }
+
+    @Test
+    void testParticipate_ConcurrentBookingsNeverOverbook() throws Exception {
+        // Given
+        int seats = 5;
+        testSession.setMaxParticipants(seats);
+        sessionRepository.save(testSession);
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            userIds.add(userRepository.save(User.builder()
+                    .email("booker" + i + "@example.com")
+                    .firstName("Boo")
+                    .lastName("Ker")
+                    .password("password")
+                    .admin(false)
+                    .build()).getId());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(12);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When - everyone books as soon as the class opens
+        List<Future<Integer>> statuses = new ArrayList<>();
+        for (Long userId : userIds) {
+            statuses.add(executor.submit(() -> {
+                start.await();
+                return mockMvc.perform(post("/api/session/{id}/participate/{userId}", testSession.getId(), userId)
+                                .header("Authorization", "Bearer " + authToken))
+                        .andReturn().getResponse().getStatus();
+            }));
+        }
+        start.countDown();
+        List<Integer> results = new ArrayList<>();
+        for (Future<Integer> status : statuses) {
+            results.add(status.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(results).filteredOn(status -> status == 200).hasSize(seats);
+        assertThat(results).filteredOn(status -> status == 400).hasSize(userIds.size() - seats);
+        assertThat(sessionRepository.findParticipantIds(List.of(testSession.getId()))).hasSize(seats);
+        assertThat(sessionRepository.findById(testSession.getId()).orElseThrow().getParticipantCount()).isEqualTo(seats);
+    }
+
+    @Test
+    void testNoLongerParticipate_FreesSeat() throws Exception {
+        // Given
+        testSession.setMaxParticipants(1);
+        sessionRepository.save(testSession);
+        User other = userRepository.save(User.builder()
+                .email("other@example.com")
+                .firstName("Other")
+                .lastName("User")
+                .password("password")
+                .admin(false)
+                .build());
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", testSession.getId(), testUser.getId())
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", testSession.getId(), other.getId())
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Session is full"));
+
+        // When
+        mockMvc.perform(delete("/api/session/{id}/participate/{userId}", testSession.getId(), testUser.getId())
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk());
+
+        // Then
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", testSession.getId(), other.getId())
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testWaitlist_PromotesInJoinOrder() throws Exception {
+        // Given - a full one-seat session and two waiting users
+        testSession.setMaxParticipants(1);
+        sessionRepository.save(testSession);
+        User first = saveUser("first@example.com");
+        User second = saveUser("second@example.com");
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", testSession.getId(), testUser.getId())
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/session/{id}/waitlist/{userId}", testSession.getId(), first.getId())
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.position").value(1));
+        mockMvc.perform(post("/api/session/{id}/waitlist/{userId}", testSession.getId(), second.getId())
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.position").value(2));
+
+        // When
+        mockMvc.perform(delete("/api/session/{id}/participate/{userId}", testSession.getId(), testUser.getId())
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk());
+
+        // Then
+        assertThat(sessionService.findParticipantIds(List.of(testSession.getId())).get(testSession.getId()))
+                .containsExactly(first.getId());
+        mockMvc.perform(get("/api/session/{id}/waitlist/{userId}", testSession.getId(), second.getId())
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.position").value(1));
+        mockMvc.perform(get("/api/session/{id}/waitlist/{userId}", testSession.getId(), first.getId())
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testWaitlist_BulkCancellationPromotesEveryFreedSeat() throws Exception {
+        // Given - two seats taken, two users waiting
+        testSession.setMaxParticipants(2);
+        sessionRepository.save(testSession);
+        User booked = saveUser("booked@example.com");
+        User firstWaiting = saveUser("waiting1@example.com");
+        User secondWaiting = saveUser("waiting2@example.com");
+        for (User user : List.of(testUser, booked)) {
+            mockMvc.perform(post("/api/session/{id}/participate/{userId}", testSession.getId(), user.getId())
+                            .header("Authorization", "Bearer " + authToken))
+                    .andExpect(status().isOk());
+        }
+        for (User user : List.of(firstWaiting, secondWaiting)) {
+            mockMvc.perform(post("/api/session/{id}/waitlist/{userId}", testSession.getId(), user.getId())
+                            .header("Authorization", "Bearer " + authToken))
+                    .andExpect(status().isOk());
+        }
+
+        // When
+        mockMvc.perform(delete("/api/session/{id}/participate", testSession.getId())
+                        .param("userIds", testUser.getId() + "," + booked.getId())
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk());
+
+        // Then
+        assertThat(sessionService.findParticipantIds(List.of(testSession.getId())).get(testSession.getId()))
+                .containsExactlyInAnyOrder(firstWaiting.getId(), secondWaiting.getId());
+        assertThat(sessionRepository.findById(testSession.getId()).orElseThrow().getParticipantCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testWaitlist_RejectedWhileSeatsAreFree() throws Exception {
+        testSession.setMaxParticipants(3);
+        sessionRepository.save(testSession);
+
+        mockMvc.perform(post("/api/session/{id}/waitlist/{userId}", testSession.getId(), testUser.getId())
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Session has free seats"));
+    }
+
+    private User saveUser(String email) {
+        return userRepository.save(User.builder()
+                .email(email)
+                .firstName("Wait")
+                .lastName("Listed")
+                .password("password")
+                .admin(false)
+                .build());
     }
 
     @Test
@@ -253,7 +971,7 @@ public class SessionControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(status().isOk());
 
         // Verify user was removed from session
-        Session updatedSession = sessionRepository.findById(testSession.getId()).orElseThrow();
+        Session updatedSession = sessionRepository.findDetailedById(testSession.getId()).orElseThrow();
         assertThat(updatedSession.getUsers()).isEmpty();
     }
 
@@ -4,6 +4,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +18,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import org.springframework.security.test.context.support.WithMockUser;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -35,6 +39,9 @@ public class TeacherControllerIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Teacher teacher1;
     private Teacher teacher2;
 
@@ -75,6 +82,62 @@ public class TeacherControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$[1].lastName").value("Smith"));
     }
 
+    @Test
+    @WithMockUser
+    void testFindAll_WithCurrentETag_ShouldReturnNotModified() throws Exception {
+        // Given
+        String eTag = mockMvc.perform(get("/api/teacher"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then
+        mockMvc.perform(get("/api/teacher").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // A new teacher changes the version
+        teacherRepository.save(Teacher.builder().firstName("New").lastName("Teacher").build());
+        mockMvc.perform(get("/api/teacher").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3));
+    }
+
+    @Test
+    @WithMockUser
+    void testFindAll_ServedFromMemory() throws Exception {
+        // Given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        mockMvc.perform(get("/api/teacher"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        mockMvc.perform(get("/api/teacher/{id}", teacher2.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Jane"));
+
+        // Then
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    @WithMockUser
+    void testFindById_ReflectsCommittedUpdate() throws Exception {
+        // When
+        teacher1.setFirstName("Johnny");
+        teacherRepository.save(teacher1);
+
+        // Then
+        mockMvc.perform(get("/api/teacher/{id}", teacher1.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Johnny"));
+        mockMvc.perform(get("/api/teacher"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].firstName").value("Johnny"));
+    }
+
     @Test
     @WithMockUser
     void testFindAll_WhenNoTeachers_ShouldReturnEmptyList() throws Exception {
@@ -144,6 +144,7 @@ public class TestConfig {
                 session.setName(dto.getName());
                 session.setDate(dto.getDate());
                 session.setDescription(dto.getDescription());
+                session.setMaxParticipants(dto.getMaxParticipants());
                 session.setCreatedAt(dto.getCreatedAt());
                 session.setUpdatedAt(dto.getUpdatedAt());
                 return session;
@@ -156,6 +157,7 @@ public class TestConfig {
                 dto.setName(entity.getName());
                 dto.setDate(entity.getDate());
                 dto.setDescription(entity.getDescription());
+                dto.setMaxParticipants(entity.getMaxParticipants());
                 dto.setCreatedAt(entity.getCreatedAt());
                 dto.setUpdatedAt(entity.getUpdatedAt());
                 return dto;
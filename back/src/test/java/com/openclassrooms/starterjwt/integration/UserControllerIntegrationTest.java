@@ -81,6 +81,26 @@ public class UserControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.admin").value(false));
     }
 
+    @Test
+    void testFindById_WithCurrentETag_ReturnsNotModified() throws Exception {
+        // Given
+        String eTag = mockMvc.perform(get("/api/user/{id}", testUser.getId())
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then
+        mockMvc.perform(get("/api/user/{id}", testUser.getId())
+                        .header("Authorization", "Bearer " + authToken)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/user/{id}", testUser.getId())
+                        .header("Authorization", "Bearer " + authToken)
+                        .header("If-None-Match", "\"user-0-0\""))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void testFindById_UserNotFound() throws Exception {
         // Given
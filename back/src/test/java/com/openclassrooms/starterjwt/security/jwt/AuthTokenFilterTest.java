@@ -1,39 +1,56 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
-import ch.qos.logback.classic.Logger;
-import ch.qos.logback.classic.spi.ILoggingEvent;
-import ch.qos.logback.core.read.ListAppender;
+import com.openclassrooms.starterjwt.security.services.ActiveAccountCache;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 import java.lang.reflect.Field;
-import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class AuthTokenFilterTest {
 
+    @Mock
+    private JwtClaimsCache jwtClaimsCache;
+
+    @Mock
+    private Claims claims;
+
     @Mock
     private JwtUtils jwtUtils;
 
     @Mock
     private UserDetailsServiceImpl userDetailsService;
 
+    @Mock
+    private ActiveAccountCache activeAccountCache;
+
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
+    @Mock
+    private JwtFailureRecorder failureRecorder;
+
     @Mock
     private HttpServletRequest request;
 
@@ -48,27 +65,31 @@ class AuthTokenFilterTest {
 
     private static final String VALID_TOKEN = "valid.jwt.token";
     private static final String INVALID_TOKEN = "invalid.token";
-    private ListAppender<ILoggingEvent> logAppender;
 
     @BeforeEach
     void setUp() throws Exception {
-        // Capture log events and suppress console output
-        Logger logger = (Logger) LoggerFactory.getLogger(AuthTokenFilter.class);
-        logger.detachAndStopAllAppenders(); // Remove console appender
-        logger.setAdditive(false); // Prevent propagation to root logger
-        logAppender = new ListAppender<>();
-        logAppender.start();
-        logger.addAppender(logAppender);
-        logger.setLevel(ch.qos.logback.classic.Level.ALL); // Capture all levels
+        // Other test classes may leave an authentication behind on this thread
+        SecurityContextHolder.clearContext();
 
         // Use reflection to inject mocks since AuthTokenFilter uses @Autowired
-        Field jwtUtilsField = AuthTokenFilter.class.getDeclaredField("jwtUtils");
-        jwtUtilsField.setAccessible(true);
-        jwtUtilsField.set(authTokenFilter, jwtUtils);
+        Field jwtClaimsCacheField = AuthTokenFilter.class.getDeclaredField("jwtClaimsCache");
+        jwtClaimsCacheField.setAccessible(true);
+        jwtClaimsCacheField.set(authTokenFilter, jwtClaimsCache);
 
         Field userDetailsServiceField = AuthTokenFilter.class.getDeclaredField("userDetailsService");
         userDetailsServiceField.setAccessible(true);
         userDetailsServiceField.set(authTokenFilter, userDetailsService);
+
+        ReflectionTestUtils.setField(authTokenFilter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(authTokenFilter, "activeAccountCache", activeAccountCache);
+        ReflectionTestUtils.setField(authTokenFilter, "tokenRevocationList", tokenRevocationList);
+        ReflectionTestUtils.setField(authTokenFilter, "failureRecorder", failureRecorder);
+        ReflectionTestUtils.setField(authTokenFilter, "statelessAuth", false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
     }
 
     @Test
@@ -83,32 +104,46 @@ class AuthTokenFilterTest {
                 .build();
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + VALID_TOKEN);
-        when(jwtUtils.validateJwtToken(VALID_TOKEN)).thenReturn(true);
-        when(jwtUtils.getUserNameFromJwtToken(VALID_TOKEN)).thenReturn("test@example.com");
+        when(jwtClaimsCache.getVerifiedClaims(VALID_TOKEN)).thenReturn(claims);
+        when(claims.getSubject()).thenReturn("test@example.com");
         when(userDetailsService.loadUserByUsername("test@example.com")).thenReturn(userDetails);
 
         // When
         authTokenFilter.doFilterInternal(request, response, filterChain);
 
         // Then
-        verify(jwtUtils).validateJwtToken(VALID_TOKEN);
-        verify(jwtUtils).getUserNameFromJwtToken(VALID_TOKEN);
+        verify(jwtClaimsCache, times(1)).getVerifiedClaims(VALID_TOKEN);
         verify(userDetailsService).loadUserByUsername("test@example.com");
         verify(filterChain).doFilter(request, response);
     }
 
+    @Test
+    void testDoFilterInternal_RevokedToken() throws Exception {
+        // Given
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + VALID_TOKEN);
+        when(jwtClaimsCache.getVerifiedClaims(VALID_TOKEN)).thenReturn(claims);
+        when(tokenRevocationList.isRevoked(claims)).thenReturn(true);
+
+        // When
+        authTokenFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(filterChain).doFilter(request, response);
+    }
+
     @Test
     void testDoFilterInternal_InvalidToken() throws Exception {
         // Given
         when(request.getHeader("Authorization")).thenReturn("Bearer " + INVALID_TOKEN);
-        when(jwtUtils.validateJwtToken(INVALID_TOKEN)).thenReturn(false);
+        when(jwtClaimsCache.getVerifiedClaims(INVALID_TOKEN)).thenReturn(null);
 
         // When
         authTokenFilter.doFilterInternal(request, response, filterChain);
 
         // Then
-        verify(jwtUtils).validateJwtToken(INVALID_TOKEN);
-        verify(jwtUtils, never()).getUserNameFromJwtToken(anyString());
+        verify(jwtClaimsCache).getVerifiedClaims(INVALID_TOKEN);
         verify(userDetailsService, never()).loadUserByUsername(anyString());
         verify(filterChain).doFilter(request, response);
     }
@@ -122,7 +157,7 @@ class AuthTokenFilterTest {
         authTokenFilter.doFilterInternal(request, response, filterChain);
 
         // Then
-        verify(jwtUtils, never()).validateJwtToken(anyString());
+        verify(jwtClaimsCache, never()).getVerifiedClaims(anyString());
         verify(filterChain).doFilter(request, response);
     }
 
@@ -135,7 +170,7 @@ class AuthTokenFilterTest {
         authTokenFilter.doFilterInternal(request, response, filterChain);
 
         // Then
-        verify(jwtUtils, never()).validateJwtToken(anyString());
+        verify(jwtClaimsCache, never()).getVerifiedClaims(anyString());
         verify(filterChain).doFilter(request, response);
     }
 
@@ -143,14 +178,13 @@ class AuthTokenFilterTest {
     void testDoFilterInternal_EmptyBearerToken() throws Exception {
         // Given
         when(request.getHeader("Authorization")).thenReturn("Bearer ");
-        when(jwtUtils.validateJwtToken("")).thenReturn(false);
+        when(jwtClaimsCache.getVerifiedClaims("")).thenReturn(null);
 
         // When
         authTokenFilter.doFilterInternal(request, response, filterChain);
 
         // Then
-        verify(jwtUtils).validateJwtToken("");
-        verify(jwtUtils, never()).getUserNameFromJwtToken(anyString());
+        verify(jwtClaimsCache).getVerifiedClaims("");
         verify(userDetailsService, never()).loadUserByUsername(anyString());
         verify(filterChain).doFilter(request, response);
     }
@@ -159,8 +193,8 @@ class AuthTokenFilterTest {
     void testDoFilterInternal_ExceptionHandling() throws Exception {
         // Given
         when(request.getHeader("Authorization")).thenReturn("Bearer " + VALID_TOKEN);
-        when(jwtUtils.validateJwtToken(VALID_TOKEN)).thenReturn(true);
-        when(jwtUtils.getUserNameFromJwtToken(VALID_TOKEN)).thenReturn("test@example.com");
+        when(jwtClaimsCache.getVerifiedClaims(VALID_TOKEN)).thenReturn(claims);
+        when(claims.getSubject()).thenReturn("test@example.com");
         when(userDetailsService.loadUserByUsername("test@example.com"))
                 .thenThrow(new UsernameNotFoundException("User not found"));
 
@@ -169,45 +203,108 @@ class AuthTokenFilterTest {
 
         // Then
         verify(filterChain).doFilter(request, response); // Should continue even on exception
-        List<ILoggingEvent> logEvents = logAppender.list;
-        assertThat(logEvents).hasSize(1);
-        assertThat(logEvents.get(0).getLevel().toString()).isEqualTo("ERROR");
-        assertThat(logEvents.get(0).getMessage()).contains("Cannot set user authentication");
+        verify(failureRecorder).record(eq(JwtFailureRecorder.Reason.AUTHENTICATION_FAILED), anyString());
     }
 
     @Test
     void testDoFilterInternal_ExceptionDuringTokenValidation() throws Exception {
         // Given
         when(request.getHeader("Authorization")).thenReturn("Bearer " + VALID_TOKEN);
-        when(jwtUtils.validateJwtToken(VALID_TOKEN)).thenThrow(new RuntimeException("Validation error"));
+        when(jwtClaimsCache.getVerifiedClaims(VALID_TOKEN)).thenThrow(new RuntimeException("Validation error"));
 
         // When
         authTokenFilter.doFilterInternal(request, response, filterChain);
 
         // Then
         verify(filterChain).doFilter(request, response); // Should continue even on exception
-        List<ILoggingEvent> logEvents = logAppender.list;
-        assertThat(logEvents).hasSize(1);
-        assertThat(logEvents.get(0).getLevel().toString()).isEqualTo("ERROR");
-        assertThat(logEvents.get(0).getMessage()).contains("Cannot set user authentication");
+        verify(failureRecorder).record(eq(JwtFailureRecorder.Reason.AUTHENTICATION_FAILED), anyString());
     }
 
     @Test
     void testDoFilterInternal_ExceptionDuringUsernameExtraction() throws Exception {
         // Given
         when(request.getHeader("Authorization")).thenReturn("Bearer " + VALID_TOKEN);
-        when(jwtUtils.validateJwtToken(VALID_TOKEN)).thenReturn(true);
-        when(jwtUtils.getUserNameFromJwtToken(VALID_TOKEN)).thenThrow(new RuntimeException("Extraction error"));
+        when(jwtClaimsCache.getVerifiedClaims(VALID_TOKEN)).thenReturn(claims);
+        when(claims.getSubject()).thenThrow(new RuntimeException("Extraction error"));
 
         // When
         authTokenFilter.doFilterInternal(request, response, filterChain);
 
         // Then
         verify(filterChain).doFilter(request, response); // Should continue even on exception
-        List<ILoggingEvent> logEvents = logAppender.list;
-        assertThat(logEvents).hasSize(1);
-        assertThat(logEvents.get(0).getLevel().toString()).isEqualTo("ERROR");
-        assertThat(logEvents.get(0).getMessage()).contains("Cannot set user authentication");
+        verify(failureRecorder).record(eq(JwtFailureRecorder.Reason.AUTHENTICATION_FAILED), anyString());
     }
-}
 
+    @Test
+    void testDoFilterInternal_StatelessSkipsUserLookup() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(authTokenFilter, "statelessAuth", true);
+        UserDetailsImpl userDetails = UserDetailsImpl.builder()
+                .id(1L)
+                .username("test@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .admin(false)
+                .build();
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + VALID_TOKEN);
+        when(jwtClaimsCache.getVerifiedClaims(VALID_TOKEN)).thenReturn(claims);
+        when(jwtUtils.getUserDetailsFromClaims(claims)).thenReturn(userDetails);
+        when(activeAccountCache.isActive(1L)).thenReturn(true);
+
+        // When
+        authTokenFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isSameAs(userDetails);
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void testDoFilterInternal_StatelessRejectsDeletedAccount() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(authTokenFilter, "statelessAuth", true);
+        UserDetailsImpl userDetails = UserDetailsImpl.builder()
+                .id(1L)
+                .username("test@example.com")
+                .build();
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + VALID_TOKEN);
+        when(jwtClaimsCache.getVerifiedClaims(VALID_TOKEN)).thenReturn(claims);
+        when(jwtUtils.getUserDetailsFromClaims(claims)).thenReturn(userDetails);
+        when(activeAccountCache.isActive(1L)).thenReturn(false);
+
+        // When
+        authTokenFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void testDoFilterInternal_StatelessFallsBackForTokensWithoutClaims() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(authTokenFilter, "statelessAuth", true);
+        UserDetails userDetails = UserDetailsImpl.builder()
+                .id(1L)
+                .username("test@example.com")
+                .build();
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + VALID_TOKEN);
+        when(jwtClaimsCache.getVerifiedClaims(VALID_TOKEN)).thenReturn(claims);
+        when(claims.getSubject()).thenReturn("test@example.com");
+        when(jwtUtils.getUserDetailsFromClaims(claims)).thenReturn(null);
+        when(userDetailsService.loadUserByUsername("test@example.com")).thenReturn(userDetails);
+
+        // When
+        authTokenFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(userDetailsService).loadUserByUsername("test@example.com");
+        verify(activeAccountCache, never()).isActive(any());
+        verify(filterChain).doFilter(request, response);
+    }
+}
@@ -0,0 +1,87 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import ch.qos.logback.classic.Logger;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class JwtClaimsCacheTest {
+
+    private static final String TEST_SECRET = "testSecretKeyForJwtTokenGenerationAndValidationTest12345678901234567890123456789012345678901234567890123456789012345678901234567890";
+
+    private JwtUtils jwtUtils;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtClaimsCache jwtClaimsCache;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        // Silence the expected "invalid token" errors
+        ((Logger) LoggerFactory.getLogger(JwtFailureRecorder.class)).detachAndStopAllAppenders();
+
+        jwtUtils = spy(new JwtUtils(new JwtKeyRing(TEST_SECRET, "primary"), new JwtFailureRecorder(new SimpleMeterRegistry(), 10000)));
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000);
+
+        meterRegistry = new SimpleMeterRegistry();
+        jwtClaimsCache = new JwtClaimsCache(jwtUtils, meterRegistry, 100);
+
+        UserDetailsImpl userDetails = UserDetailsImpl.builder()
+                .id(1L)
+                .username("test@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .admin(false)
+                .build();
+        token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(userDetails, null));
+    }
+
+    @Test
+    void testGetVerifiedClaims_VerifiesSignatureOnlyOnce() {
+        // When
+        Claims first = jwtClaimsCache.getVerifiedClaims(token);
+        Claims second = jwtClaimsCache.getVerifiedClaims(token);
+
+        // Then
+        assertThat(first.getSubject()).isEqualTo("test@example.com");
+        assertThat(second).isSameAs(first);
+        verify(jwtUtils, times(1)).getVerifiedClaims(token);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwtClaims").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwtClaims").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testGetVerifiedClaims_InvalidTokenIsNotCached() {
+        // When
+        Claims first = jwtClaimsCache.getVerifiedClaims("not.a.token");
+        Claims second = jwtClaimsCache.getVerifiedClaims("not.a.token");
+
+        // Then
+        assertThat(first).isNull();
+        assertThat(second).isNull();
+        verify(jwtUtils, times(2)).getVerifiedClaims("not.a.token");
+    }
+
+    @Test
+    void testGetVerifiedClaims_ExpiredTokenIsNotCached() {
+        // Given
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", -1000);
+        UserDetailsImpl userDetails = UserDetailsImpl.builder().id(2L).username("old@example.com").build();
+        String expiredToken = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(userDetails, null));
+
+        // When
+        Claims claims = jwtClaimsCache.getVerifiedClaims(expiredToken);
+
+        // Then
+        assertThat(claims).isNull();
+    }
+}
@@ -0,0 +1,75 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtFailureRecorderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ListAppender<ILoggingEvent> logAppender;
+
+    @BeforeEach
+    void setUp() {
+        Logger logger = (Logger) LoggerFactory.getLogger(JwtFailureRecorder.class);
+        logger.detachAndStopAllAppenders();
+        logger.setAdditive(false);
+        logAppender = new ListAppender<>();
+        logAppender.start();
+        logger.addAppender(logAppender);
+
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testRecord_LogsOncePerIntervalAndCountsEveryFailure() {
+        // Given
+        JwtFailureRecorder recorder = new JwtFailureRecorder(meterRegistry, 60000);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            recorder.record(JwtFailureRecorder.Reason.EXPIRED, "stale token");
+        }
+
+        // Then
+        assertThat(logAppender.list).hasSize(1);
+        assertThat(logAppender.list.get(0).getFormattedMessage()).isEqualTo("JWT token is expired: stale token");
+        assertThat(meterRegistry.get("auth.jwt.rejected").tag("reason", "expired").counter().count()).isEqualTo(100.0);
+    }
+
+    @Test
+    void testRecord_ReasonsAreThrottledSeparately() {
+        // Given
+        JwtFailureRecorder recorder = new JwtFailureRecorder(meterRegistry, 60000);
+
+        // When
+        recorder.record(JwtFailureRecorder.Reason.EXPIRED, "stale token");
+        recorder.record(JwtFailureRecorder.Reason.INVALID_SIGNATURE, "bad signature");
+
+        // Then
+        assertThat(logAppender.list).hasSize(2);
+    }
+
+    @Test
+    void testRecord_ReportsSuppressedCountOnNextLine() {
+        // Given
+        JwtFailureRecorder recorder = new JwtFailureRecorder(meterRegistry, 10000);
+
+        // When
+        recorder.record(JwtFailureRecorder.Reason.MALFORMED, "first", 1000);
+        recorder.record(JwtFailureRecorder.Reason.MALFORMED, "dropped", 2000);
+        recorder.record(JwtFailureRecorder.Reason.MALFORMED, "dropped", 3000);
+        recorder.record(JwtFailureRecorder.Reason.MALFORMED, "next", 11000);
+
+        // Then
+        assertThat(logAppender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(
+                "Invalid JWT token: first",
+                "Invalid JWT token: next (2 similar failures suppressed)");
+    }
+}
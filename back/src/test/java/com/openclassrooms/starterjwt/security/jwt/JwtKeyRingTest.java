@@ -0,0 +1,100 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import ch.qos.logback.classic.Logger;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtKeyRingTest {
+
+    private static final String FIRST_SECRET = "testSecretKeyForJwtTokenGenerationAndValidationTest12345678901234567890123456789012345678901234567890123456789012345678901234567890";
+    private static final String SECOND_SECRET = "differentSecretKeyForJwtTokenGenerationAndValidationTest12345678901234567890123456789012345678901234567890123456789012345678901234567890";
+
+    private JwtKeyRing keyRing;
+    private JwtUtils jwtUtils;
+    private UserDetailsImpl userDetails;
+
+    @BeforeEach
+    void setUp() {
+        // Silence the expected "invalid signature" errors
+        ((Logger) LoggerFactory.getLogger(JwtFailureRecorder.class)).detachAndStopAllAppenders();
+
+        keyRing = new JwtKeyRing(FIRST_SECRET, "primary");
+        jwtUtils = new JwtUtils(keyRing, new JwtFailureRecorder(new SimpleMeterRegistry(), 10000));
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000);
+        userDetails = UserDetailsImpl.builder().id(1L).username("test@example.com").build();
+    }
+
+    @Test
+    void testParser_IsBuiltOnce() {
+        assertThat(keyRing.parser()).isSameAs(keyRing.parser());
+    }
+
+    @Test
+    void testRotate_OldTokensStillVerify() {
+        // Given
+        String oldToken = generateToken();
+
+        // When
+        keyRing.rotate("next", SECOND_SECRET);
+        String newToken = generateToken();
+
+        // Then
+        assertThat(keyRing.activeKeyId()).isEqualTo("next");
+        assertThat(jwtUtils.validateJwtToken(oldToken)).isTrue();
+        assertThat(jwtUtils.validateJwtToken(newToken)).isTrue();
+    }
+
+    @Test
+    void testRetire_RejectsTokensOfRetiredKey() {
+        // Given
+        String oldToken = generateToken();
+        keyRing.rotate("next", SECOND_SECRET);
+
+        // When
+        keyRing.retire("primary");
+
+        // Then
+        assertThat(jwtUtils.validateJwtToken(oldToken)).isFalse();
+        assertThat(jwtUtils.validateJwtToken(generateToken())).isTrue();
+    }
+
+    @Test
+    void testRetire_ActiveKeyIsRefused() {
+        assertThatThrownBy(() -> keyRing.retire("primary"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testReload_PicksUpKeyFile(@TempDir Path tempDir) throws Exception {
+        // Given
+        Path keyFile = tempDir.resolve("jwt-keys.properties");
+        Files.writeString(keyFile, "active=next\nnext=" + SECOND_SECRET + "\n");
+        JwtKeyRing fileKeyRing = new JwtKeyRing(FIRST_SECRET, "primary", keyFile.toString());
+
+        // Then
+        assertThat(fileKeyRing.activeKeyId()).isEqualTo("next");
+
+        // When
+        Files.writeString(keyFile, "active=primary\nnext=" + SECOND_SECRET + "\n");
+        fileKeyRing.reload();
+
+        // Then
+        assertThat(fileKeyRing.activeKeyId()).isEqualTo("primary");
+    }
+
+    private String generateToken() {
+        return jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(userDetails, null));
+    }
+}
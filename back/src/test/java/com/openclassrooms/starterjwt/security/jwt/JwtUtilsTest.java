@@ -4,10 +4,11 @@ import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.read.ListAppender;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.Authentication;
@@ -20,7 +21,6 @@ import static org.assertj.core.api.Assertions.assertThat;
 @ExtendWith(MockitoExtension.class)
 class JwtUtilsTest {
 
-    @InjectMocks
     private JwtUtils jwtUtils;
 
     // HS512 requires at least 512 bits (64 bytes) - this is 64 characters
@@ -32,11 +32,11 @@ class JwtUtilsTest {
 
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", TEST_SECRET);
+        jwtUtils = new JwtUtils(new JwtKeyRing(TEST_SECRET, "primary"), new JwtFailureRecorder(new SimpleMeterRegistry(), 10000));
         ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", TEST_EXPIRATION_MS);
 
         // Capture log events and suppress console output
-        Logger logger = (Logger) LoggerFactory.getLogger(JwtUtils.class);
+        Logger logger = (Logger) LoggerFactory.getLogger(JwtFailureRecorder.class);
         logger.detachAndStopAllAppenders(); // Remove console appender
         logger.setAdditive(false); // Prevent propagation to root logger
         logAppender = new ListAppender<>();
@@ -96,12 +96,61 @@ class JwtUtilsTest {
         assertThat(isValid).isTrue();
     }
 
+    @Test
+    void testGetVerifiedClaims_ValidToken() {
+        // Given
+        Authentication authentication = new org.springframework.security.authentication.UsernamePasswordAuthenticationToken(
+                userDetails, null);
+        String token = jwtUtils.generateJwtToken(authentication);
+
+        // When
+        Claims claims = jwtUtils.getVerifiedClaims(token);
+
+        // Then
+        assertThat(claims).isNotNull();
+        assertThat(claims.getSubject()).isEqualTo("test@example.com");
+        assertThat(claims.getExpiration()).isAfter(claims.getIssuedAt());
+    }
+
+    @Test
+    void testGetUserDetailsFromClaims_RestoresIdentity() {
+        // Given
+        UserDetailsImpl admin = UserDetailsImpl.builder()
+                .id(42L)
+                .username("admin@example.com")
+                .firstName("Admin")
+                .lastName("User")
+                .admin(true)
+                .build();
+        String token = jwtUtils.generateJwtToken(
+                new org.springframework.security.authentication.UsernamePasswordAuthenticationToken(admin, null));
+
+        // When
+        UserDetailsImpl restored = jwtUtils.getUserDetailsFromClaims(jwtUtils.getVerifiedClaims(token));
+
+        // Then
+        assertThat(restored.getId()).isEqualTo(42L);
+        assertThat(restored.getUsername()).isEqualTo("admin@example.com");
+        assertThat(restored.getFirstName()).isEqualTo("Admin");
+        assertThat(restored.getLastName()).isEqualTo("User");
+        assertThat(restored.getAdmin()).isTrue();
+        assertThat(restored.getPassword()).isNull();
+    }
+
+    @Test
+    void testGetVerifiedClaims_InvalidToken() {
+        // When
+        Claims claims = jwtUtils.getVerifiedClaims("not.a.valid.jwt.token");
+
+        // Then
+        assertThat(claims).isNull();
+    }
+
     @Test
     void testValidateJwtToken_InvalidSignature() {
         // Given - Create a token with a different secret key
         String differentSecret = "differentSecretKeyForJwtTokenGenerationAndValidationTest12345678901234567890123456789012345678901234567890123456789012345678901234567890";
-        JwtUtils jwtUtilsWithDifferentSecret = new JwtUtils();
-        ReflectionTestUtils.setField(jwtUtilsWithDifferentSecret, "jwtSecret", differentSecret);
+        JwtUtils jwtUtilsWithDifferentSecret = new JwtUtils(new JwtKeyRing(differentSecret, "primary"), new JwtFailureRecorder(new SimpleMeterRegistry(), 10000));
         ReflectionTestUtils.setField(jwtUtilsWithDifferentSecret, "jwtExpirationMs", TEST_EXPIRATION_MS);
         
         Authentication authentication = new org.springframework.security.authentication.UsernamePasswordAuthenticationToken(
@@ -116,8 +165,8 @@ class JwtUtilsTest {
         assertThat(isValid).isFalse();
         List<ILoggingEvent> logEvents = logAppender.list;
         assertThat(logEvents).hasSize(1);
-        assertThat(logEvents.get(0).getLevel().toString()).isEqualTo("ERROR");
-        assertThat(logEvents.get(0).getMessage()).contains("Invalid JWT signature");
+        assertThat(logEvents.get(0).getLevel().toString()).isEqualTo("WARN");
+        assertThat(logEvents.get(0).getFormattedMessage()).contains("Invalid JWT signature");
     }
 
     @Test
@@ -132,8 +181,8 @@ class JwtUtilsTest {
         assertThat(isValid).isFalse();
         List<ILoggingEvent> logEvents = logAppender.list;
         assertThat(logEvents).hasSize(1);
-        assertThat(logEvents.get(0).getLevel().toString()).isEqualTo("ERROR");
-        assertThat(logEvents.get(0).getMessage()).contains("Invalid JWT token");
+        assertThat(logEvents.get(0).getLevel().toString()).isEqualTo("WARN");
+        assertThat(logEvents.get(0).getFormattedMessage()).contains("Invalid JWT token");
     }
 
     @Test
@@ -148,8 +197,8 @@ class JwtUtilsTest {
         assertThat(isValid).isFalse();
         List<ILoggingEvent> logEvents = logAppender.list;
         assertThat(logEvents).hasSize(1);
-        assertThat(logEvents.get(0).getLevel().toString()).isEqualTo("ERROR");
-        assertThat(logEvents.get(0).getMessage()).contains("JWT claims string is empty");
+        assertThat(logEvents.get(0).getLevel().toString()).isEqualTo("WARN");
+        assertThat(logEvents.get(0).getFormattedMessage()).contains("JWT claims string is empty");
     }
 
     @Test
@@ -182,8 +231,8 @@ class JwtUtilsTest {
         assertThat(isValid).isFalse();
         List<ILoggingEvent> logEvents = logAppender.list;
         assertThat(logEvents).hasSize(1);
-        assertThat(logEvents.get(0).getLevel().toString()).isEqualTo("ERROR");
-        assertThat(logEvents.get(0).getMessage()).contains("JWT token is expired");
+        assertThat(logEvents.get(0).getLevel().toString()).isEqualTo("WARN");
+        assertThat(logEvents.get(0).getFormattedMessage()).contains("JWT token is expired");
     }
 
     @Test
@@ -219,5 +268,46 @@ class JwtUtilsTest {
         assertThat(jwtUtils.getUserNameFromJwtToken(token1)).isEqualTo("user1@example.com");
         assertThat(jwtUtils.getUserNameFromJwtToken(token2)).isEqualTo("user2@example.com");
     }
-}
 
+    @Test
+    void testGenerateJwtToken_CarriesActiveKeyId() {
+        // Given
+        Authentication authentication = new org.springframework.security.authentication.UsernamePasswordAuthenticationToken(
+                userDetails, null);
+
+        // When
+        String token = jwtUtils.generateJwtToken(authentication);
+        String header = new String(java.util.Base64.getUrlDecoder().decode(token.split("\\.")[0]));
+
+        // Then
+        assertThat(header).contains("\"kid\":\"primary\"");
+    }
+
+    @Test
+    void testPrecheck_RejectsBadStructureWithoutParsing() {
+        long now = System.currentTimeMillis();
+
+        assertThat(JwtUtils.precheck(null, now)).isEqualTo(JwtFailureRecorder.Reason.EMPTY);
+        assertThat(JwtUtils.precheck("  ", now)).isEqualTo(JwtFailureRecorder.Reason.EMPTY);
+        assertThat(JwtUtils.precheck("abc", now)).isEqualTo(JwtFailureRecorder.Reason.MALFORMED);
+        assertThat(JwtUtils.precheck("a.b", now)).isEqualTo(JwtFailureRecorder.Reason.MALFORMED);
+        assertThat(JwtUtils.precheck("a..c", now)).isEqualTo(JwtFailureRecorder.Reason.MALFORMED);
+        assertThat(JwtUtils.precheck("a.b.", now)).isEqualTo(JwtFailureRecorder.Reason.MALFORMED);
+        assertThat(JwtUtils.precheck("a.b.c.d", now)).isEqualTo(JwtFailureRecorder.Reason.MALFORMED);
+        assertThat(JwtUtils.precheck("a$.b.c", now)).isEqualTo(JwtFailureRecorder.Reason.MALFORMED);
+        assertThat(JwtUtils.precheck("a.b=.c", now)).isEqualTo(JwtFailureRecorder.Reason.MALFORMED);
+    }
+
+    @Test
+    void testPrecheck_PeeksExpiration() {
+        // Given
+        Authentication authentication = new org.springframework.security.authentication.UsernamePasswordAuthenticationToken(
+                userDetails, null);
+        String token = jwtUtils.generateJwtToken(authentication);
+        long now = System.currentTimeMillis();
+
+        // When/Then
+        assertThat(JwtUtils.precheck(token, now)).isNull();
+        assertThat(JwtUtils.precheck(token, now + TEST_EXPIRATION_MS + 1000)).isEqualTo(JwtFailureRecorder.Reason.EXPIRED);
+    }
+}
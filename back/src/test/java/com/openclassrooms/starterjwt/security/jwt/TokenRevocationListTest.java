@@ -0,0 +1,159 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import com.openclassrooms.starterjwt.models.RevokedToken;
+import com.openclassrooms.starterjwt.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationListTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocationList tokenRevocationList;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationList = new TokenRevocationList(revokedTokenRepository, new SimpleMeterRegistry(),
+                1000, 0.001, 86400000, 60000);
+    }
+
+    @Test
+    void testIsRevoked_UnknownTokenSkipsDatabase() {
+        // When
+        boolean revoked = tokenRevocationList.isRevoked(claims("jti-1", 1L));
+
+        // Then
+        assertThat(revoked).isFalse();
+        verify(revokedTokenRepository, never()).existsByTokenId(anyString());
+    }
+
+    @Test
+    void testRevoke_TokenIsRejectedOnThisNode() {
+        // Given
+        Claims claims = claims("jti-1", 1L);
+        when(revokedTokenRepository.existsByTokenId("jti-1")).thenReturn(true);
+
+        // When
+        tokenRevocationList.revoke(claims);
+
+        // Then
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+        assertThat(tokenRevocationList.isRevoked(claims)).isTrue();
+        assertThat(tokenRevocationList.isRevoked(claims("jti-2", 1L))).isFalse();
+    }
+
+    @Test
+    void testRevokeUser_RejectsEveryTokenOfTheAccount() {
+        // Given
+        when(revokedTokenRepository.existsByTokenId("user:7")).thenReturn(true);
+
+        // When
+        tokenRevocationList.revokeUser(7L);
+
+        // Then
+        assertThat(tokenRevocationList.isRevoked(claims("any-jti", 7L))).isTrue();
+        assertThat(tokenRevocationList.isRevoked(claims("other-jti", 8L))).isFalse();
+    }
+
+    @Test
+    void testRefresh_PicksUpRevocationsFromOtherNodes() {
+        // Given
+        when(revokedTokenRepository.findActiveTokenIds(any(LocalDateTime.class))).thenReturn(List.of());
+        tokenRevocationList.rebuild();
+        when(revokedTokenRepository.findTokenIdsCreatedSince(any(LocalDateTime.class))).thenReturn(List.of("jti-remote"));
+        when(revokedTokenRepository.existsByTokenId("jti-remote")).thenReturn(true);
+
+        // When
+        tokenRevocationList.refresh();
+
+        // Then
+        assertThat(tokenRevocationList.isRevoked(claims("jti-remote", 1L))).isTrue();
+    }
+
+    @Test
+    void testRefresh_RereadsWindowBeforeLastRefresh() {
+        // Given
+        when(revokedTokenRepository.findActiveTokenIds(any(LocalDateTime.class))).thenReturn(List.of());
+        tokenRevocationList.rebuild();
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        LocalDateTime before = LocalDateTime.now();
+
+        // When
+        tokenRevocationList.refresh();
+        tokenRevocationList.refresh();
+
+        // Then - a row that commits late is still inside the next window
+        verify(revokedTokenRepository, times(2)).findTokenIdsCreatedSince(since.capture());
+        assertThat(since.getAllValues().get(1)).isBefore(before.minusSeconds(59));
+    }
+
+    @Test
+    void testPurgeExpired_RebuildsWithoutPurgedRows() {
+        // Given
+        when(revokedTokenRepository.findActiveTokenIds(any(LocalDateTime.class)))
+                .thenReturn(List.of("jti-old"))
+                .thenReturn(List.of());
+        tokenRevocationList.rebuild();
+        when(revokedTokenRepository.deleteExpired(any(LocalDateTime.class))).thenReturn(1);
+
+        // When
+        tokenRevocationList.purgeExpired();
+
+        // Then
+        assertThat(tokenRevocationList.isRevoked(claims("jti-old", 1L))).isFalse();
+        verify(revokedTokenRepository, never()).existsByTokenId("jti-old");
+    }
+
+    @Test
+    void testPurgeExpired_RebuildsWhenAnotherNodeDeletedTheRows() {
+        // Given
+        when(revokedTokenRepository.findActiveTokenIds(any(LocalDateTime.class)))
+                .thenReturn(List.of("jti-old"))
+                .thenReturn(List.of());
+        tokenRevocationList.rebuild();
+        when(revokedTokenRepository.deleteExpired(any(LocalDateTime.class))).thenReturn(0);
+
+        // When
+        tokenRevocationList.purgeExpired();
+
+        // Then
+        assertThat(tokenRevocationList.isRevoked(claims("jti-old", 1L))).isFalse();
+        verify(revokedTokenRepository, times(2)).findActiveTokenIds(any(LocalDateTime.class));
+    }
+
+    @Test
+    void testRevoke_TokenWithoutJtiIsIgnored() {
+        // When
+        tokenRevocationList.revoke(Jwts.claims().subject("legacy@example.com").build());
+
+        // Then
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    private static Claims claims(String jti, Long userId) {
+        return Jwts.claims()
+                .id(jti)
+                .subject("test@example.com")
+                .add(JwtUtils.CLAIM_ID, userId)
+                .expiration(new Date(System.currentTimeMillis() + 60000))
+                .build();
+    }
+}
@@ -0,0 +1,64 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveAccountCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private ActiveAccountCache activeAccountCache;
+
+    @BeforeEach
+    void setUp() {
+        activeAccountCache = new ActiveAccountCache(userRepository, new SimpleMeterRegistry(), 30, 100);
+    }
+
+    @Test
+    void testIsActive_QueriesRepositoryOnce() {
+        // Given
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        // When
+        boolean first = activeAccountCache.isActive(1L);
+        boolean second = activeAccountCache.isActive(1L);
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        verify(userRepository, times(1)).existsById(1L);
+    }
+
+    @Test
+    void testIsActive_UnknownAccount() {
+        // Given
+        when(userRepository.existsById(2L)).thenReturn(false);
+
+        // When/Then
+        assertThat(activeAccountCache.isActive(2L)).isFalse();
+    }
+
+    @Test
+    void testMarkDeleted_TakesEffectImmediately() {
+        // Given
+        when(userRepository.existsById(1L)).thenReturn(true);
+        activeAccountCache.isActive(1L);
+
+        // When
+        activeAccountCache.markDeleted(1L);
+
+        // Then
+        assertThat(activeAccountCache.isActive(1L)).isFalse();
+        verify(userRepository, times(1)).existsById(1L);
+    }
+}
@@ -0,0 +1,58 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveBCryptPasswordEncoderTest {
+
+    @Test
+    void testEncode_UsesConfiguredStrength() {
+        // Given
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(5);
+
+        // When
+        String encoded = encoder.encode("password123");
+
+        // Then
+        assertThat(AdaptiveBCryptPasswordEncoder.costOf(encoded)).isEqualTo(5);
+        assertThat(encoder.matches("password123", encoded)).isTrue();
+        assertThat(encoder.matches("wrong", encoded)).isFalse();
+    }
+
+    @Test
+    void testMatches_AcceptsHashesOfAnotherStrength() {
+        // Given
+        String legacyHash = new BCryptPasswordEncoder(4).encode("password123");
+
+        // When/Then
+        assertThat(new AdaptiveBCryptPasswordEncoder(6).matches("password123", legacyHash)).isTrue();
+    }
+
+    @Test
+    void testUpgradeEncoding_UpgradesAndDowngrades() {
+        // Given
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(5);
+
+        // When/Then
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password123"))).isTrue();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password123"))).isTrue();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("password123"))).isFalse();
+        assertThat(encoder.upgradeEncoding("not-a-bcrypt-hash")).isFalse();
+        assertThat(encoder.upgradeEncoding(null)).isFalse();
+    }
+
+    @Test
+    void testCalibrated_FixedStrengthSkipsMeasurement() {
+        assertThat(AdaptiveBCryptPasswordEncoder.calibrated(7, 1, 4, 12).getStrength()).isEqualTo(7);
+    }
+
+    @Test
+    void testCalibrated_StaysWithinBounds() {
+        // A zero target can never be met, so the minimum is kept
+        assertThat(AdaptiveBCryptPasswordEncoder.calibrated(0, 0, 4, 6).getStrength()).isEqualTo(4);
+        // A huge target is capped by the maximum
+        assertThat(AdaptiveBCryptPasswordEncoder.calibrated(0, 60_000, 4, 6).getStrength()).isEqualTo(6);
+    }
+}
@@ -0,0 +1,62 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import com.openclassrooms.starterjwt.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuthRateLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuthRateLimiter authRateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        authRateLimiter = new AuthRateLimiter(meterRegistry, 3, 2, 1, 0, 60, 1000);
+    }
+
+    @Test
+    void testCheckLogin_LimitsByEmailAcrossAddresses() {
+        // Given
+        authRateLimiter.checkLogin("10.0.0.1", "victim@example.com");
+        authRateLimiter.checkLogin("10.0.0.2", "Victim@Example.com ");
+
+        // When/Then
+        assertThatThrownBy(() -> authRateLimiter.checkLogin("10.0.0.3", "victim@example.com"))
+                .isInstanceOfSatisfying(TooManyRequestsException.class,
+                        ex -> assertThat(ex.getRetryAfterSeconds()).isBetween(1L, 31L));
+        assertThat(meterRegistry.get("auth.rate.limited").tag("endpoint", "login").tag("key", "email")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testCheckLogin_LimitsByAddressAcrossEmails() {
+        // Given
+        authRateLimiter.checkLogin("10.0.0.1", "a@example.com");
+        authRateLimiter.checkLogin("10.0.0.1", "b@example.com");
+        authRateLimiter.checkLogin("10.0.0.1", "c@example.com");
+
+        // When/Then
+        assertThatThrownBy(() -> authRateLimiter.checkLogin("10.0.0.1", "d@example.com"))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThatCode(() -> authRateLimiter.checkLogin("10.0.0.2", "d@example.com"))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void testCheckRegister_ZeroLimitDisablesBucket() {
+        // Given
+        authRateLimiter.checkRegister("10.0.0.1", "new@example.com");
+
+        // When/Then - the email bucket is disabled, the address bucket still applies
+        assertThatCode(() -> authRateLimiter.checkRegister("10.0.0.2", "new@example.com"))
+                .doesNotThrowAnyException();
+        assertThatThrownBy(() -> authRateLimiter.checkRegister("10.0.0.1", "other@example.com"))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+}
@@ -0,0 +1,95 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import com.openclassrooms.starterjwt.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        passwordHashingExecutor = new PasswordHashingExecutor(meterRegistry, 1, 1, 5000, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingExecutor.shutdown();
+    }
+
+    @Test
+    void testExecute_ReturnsResultAndRecordsTimings() {
+        // When
+        String result = passwordHashingExecutor.execute(() -> "hashed");
+
+        // Then
+        assertThat(result).isEqualTo("hashed");
+        assertThat(meterRegistry.get("auth.password.hash.time").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.password.queue.wait").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testExecute_PropagatesTaskException() {
+        assertThatThrownBy(() -> passwordHashingExecutor.execute(() -> {
+            throw new BadCredentialsException("Bad credentials");
+        })).isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void testExecute_RejectsWhenQueueIsFull() throws Exception {
+        // Given - one task running, one task queued
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture<Void> busy = CompletableFuture.runAsync(() -> passwordHashingExecutor.execute(() -> {
+            running.countDown();
+            awaitQuietly(release);
+            return null;
+        }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Void> queued = CompletableFuture.runAsync(() -> passwordHashingExecutor.execute(() -> null));
+        while (meterRegistry.get("auth.password.queue.size").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        try {
+            // When/Then
+            assertThatThrownBy(() -> passwordHashingExecutor.execute(() -> "rejected"))
+                    .isInstanceOf(ServiceUnavailableException.class)
+                    .extracting("retryAfterSeconds").isEqualTo(2L);
+            assertThat(meterRegistry.get("auth.password.rejected").counter().count()).isEqualTo(1.0);
+        } finally {
+            release.countDown();
+            busy.get(5, TimeUnit.SECONDS);
+            queued.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void testDefaultPoolSize_LeavesHalfOfTheCores() {
+        // When & Then
+        assertThat(PasswordHashingExecutor.defaultPoolSize(1)).isEqualTo(1);
+        assertThat(PasswordHashingExecutor.defaultPoolSize(2)).isEqualTo(1);
+        assertThat(PasswordHashingExecutor.defaultPoolSize(8)).isEqualTo(4);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
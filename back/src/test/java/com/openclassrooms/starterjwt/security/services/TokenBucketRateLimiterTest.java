@@ -0,0 +1,99 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testTryAcquire_AllowsBurstThenReportsWait() {
+        // Given - 3 tokens, refilled over 3 seconds
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, Duration.ofSeconds(3), 4, 100);
+        long now = 10 * SECOND;
+
+        // When/Then
+        assertThat(limiter.tryAcquire("client", now)).isZero();
+        assertThat(limiter.tryAcquire("client", now)).isZero();
+        assertThat(limiter.tryAcquire("client", now)).isZero();
+        assertThat(limiter.tryAcquire("client", now)).isBetween(SECOND - 1, SECOND + 1);
+    }
+
+    @Test
+    void testTryAcquire_RefillsOverTime() {
+        // Given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, Duration.ofSeconds(2), 4, 100);
+        long now = 10 * SECOND;
+        limiter.tryAcquire("client", now);
+        limiter.tryAcquire("client", now);
+
+        // When/Then
+        assertThat(limiter.tryAcquire("client", now + SECOND / 2)).isPositive();
+        assertThat(limiter.tryAcquire("client", now + SECOND + 1_000)).isZero();
+    }
+
+    @Test
+    void testTryAcquire_KeysAreIndependent() {
+        // Given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, Duration.ofSeconds(60), 4, 100);
+        long now = 10 * SECOND;
+
+        // When/Then
+        assertThat(limiter.tryAcquire("first", now)).isZero();
+        assertThat(limiter.tryAcquire("first", now)).isPositive();
+        assertThat(limiter.tryAcquire("second", now)).isZero();
+    }
+
+    @Test
+    void testTryAcquire_IdleBucketsExpire() {
+        // Given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(5, Duration.ofSeconds(10), 1, 1000);
+        long now = 10 * SECOND;
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("client-" + i, now);
+        }
+        assertThat(limiter.size()).isEqualTo(100);
+
+        // When - every bucket is full again after the refill period
+        limiter.tryAcquire("late", now + 11 * SECOND);
+
+        // Then
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testTryAcquire_ActiveBucketsSurviveSweeps() {
+        // Given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, Duration.ofSeconds(60), 1, 1000);
+        long now = 10 * SECOND;
+
+        // When - the key keeps hitting its empty bucket across many wheel ticks
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire("busy", now + i * SECOND / 2);
+        }
+
+        // Then - still throttled, so its state was kept
+        assertThat(limiter.tryAcquire("busy", now + 25 * SECOND)).isPositive();
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testTryAcquire_SizeIsBounded() {
+        // Given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(5, Duration.ofMinutes(10), 4, 40);
+        long now = 10 * SECOND;
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("client-" + i, now);
+        }
+
+        // Then
+        assertThat(limiter.size()).isLessThanOrEqualTo(40);
+    }
+}
@@ -2,19 +2,30 @@ package com.openclassrooms.starterjwt.security.services;
 
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,13 +34,15 @@ class UserDetailsServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
     private UserDetailsServiceImpl userDetailsService;
 
     private User testUser;
 
     @BeforeEach
     void setUp() {
+        userDetailsService = new UserDetailsServiceImpl(
+                userRepository, new UserDetailsCache(new SimpleMeterRegistry(), 100, 300));
+
         testUser = User.builder()
                 .id(1L)
                 .email("test@example.com")
@@ -58,6 +71,7 @@ class UserDetailsServiceImplTest {
         assertThat(userDetailsImpl.getFirstName()).isEqualTo("John");
         assertThat(userDetailsImpl.getLastName()).isEqualTo("Doe");
         assertThat(userDetailsImpl.getPassword()).isEqualTo("encodedPassword");
+        assertThat(userDetailsImpl.getAdmin()).isFalse();
         verify(userRepository).findByEmail(email);
     }
 
@@ -100,6 +114,7 @@ class UserDetailsServiceImplTest {
         assertThat(userDetailsImpl.getUsername()).isEqualTo("admin@example.com");
         assertThat(userDetailsImpl.getFirstName()).isEqualTo("Admin");
         assertThat(userDetailsImpl.getLastName()).isEqualTo("User");
+        assertThat(userDetailsImpl.getAdmin()).isTrue();
         verify(userRepository).findByEmail(email);
     }
 
@@ -139,5 +154,88 @@ class UserDetailsServiceImplTest {
         verify(userRepository).findByEmail("user1@example.com");
         verify(userRepository).findByEmail("user2@example.com");
     }
-}
 
+    @Test
+    void testLoadUserByUsername_ServedFromCache() {
+        // Given
+        String email = "test@example.com";
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(testUser));
+
+        // When
+        UserDetails first = userDetailsService.loadUserByUsername(email);
+        UserDetails second = userDetailsService.loadUserByUsername(email);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        verify(userRepository, times(1)).findByEmail(email);
+    }
+
+    @Test
+    void testLoadUserByUsername_NotFoundIsNotCached() {
+        // Given
+        String email = "notfound@example.com";
+        when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
+
+        // When/Then
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername(email))
+                .isInstanceOf(UsernameNotFoundException.class);
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername(email))
+                .isInstanceOf(UsernameNotFoundException.class);
+        verify(userRepository, times(2)).findByEmail(email);
+    }
+
+    @Test
+    void testLoadUserByUsername_ConcurrentMissesLoadOnce() throws Exception {
+        // Given
+        String email = "test@example.com";
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        when(userRepository.findByEmail(email)).thenAnswer(invocation -> {
+            loads.incrementAndGet();
+            Thread.sleep(50);
+            return Optional.of(testUser);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<UserDetails>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return userDetailsService.loadUserByUsername(email);
+                }));
+            }
+
+            // When
+            start.countDown();
+
+            // Then
+            for (Future<UserDetails> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).getUsername()).isEqualTo(email);
+            }
+            assertThat(loads.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testUpdatePassword_StoresNewHashAndRefreshesCache() {
+        // Given
+        String email = "test@example.com";
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(testUser));
+        UserDetails current = userDetailsService.loadUserByUsername(email);
+        when(userRepository.updatePassword(eq(email), eq("rehashed"), any(LocalDateTime.class))).thenReturn(1);
+
+        // When
+        UserDetails updated = userDetailsService.updatePassword(current, "rehashed");
+
+        // Then
+        assertThat(updated.getPassword()).isEqualTo("rehashed");
+        assertThat(((UserDetailsImpl) updated).getId()).isEqualTo(1L);
+        verify(userRepository).updatePassword(eq(email), eq("rehashed"), any(LocalDateTime.class));
+        // The cached entry was dropped, so the next lookup reads the repository again
+        userDetailsService.loadUserByUsername(email);
+        verify(userRepository, times(2)).findByEmail(email);
+    }
+}
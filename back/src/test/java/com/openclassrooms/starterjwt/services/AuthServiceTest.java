@@ -1,15 +1,22 @@
 package com.openclassrooms.starterjwt.services;
 
 import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.UnauthorizedException;
 import com.openclassrooms.starterjwt.mapper.AuthMapper;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.payload.request.RefreshRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
 import com.openclassrooms.starterjwt.payload.response.JwtResponse;
 import com.openclassrooms.starterjwt.payload.response.MessageResponse;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtClaimsCache;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import com.openclassrooms.starterjwt.security.services.PasswordHashingExecutor;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,7 +29,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
-import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -47,24 +54,33 @@ class AuthServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private JwtClaimsCache jwtClaimsCache;
+
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
     @InjectMocks
     private AuthService authService;
 
-    private User testUser;
     private UserDetailsImpl userDetails;
     private LoginRequest loginRequest;
     private SignupRequest signupRequest;
 
     @BeforeEach
     void setUp() {
-        testUser = User.builder()
-                .id(1L)
-                .email("test@example.com")
-                .firstName("John")
-                .lastName("Doe")
-                .password("encodedPassword")
-                .admin(false)
-                .build();
+        // Run hashing tasks inline
+        lenient().when(passwordHashingExecutor.execute(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
 
         userDetails = UserDetailsImpl.builder()
                 .id(1L)
@@ -93,7 +109,7 @@ class AuthServiceTest {
                 .thenReturn(authentication);
         when(authentication.getPrincipal()).thenReturn(userDetails);
         when(jwtUtils.generateJwtToken(authentication)).thenReturn("test-jwt-token");
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(refreshTokenService.issue(1L)).thenReturn("test-refresh-token");
 
         // When
         JwtResponse response = authService.authenticateUser(loginRequest);
@@ -101,6 +117,7 @@ class AuthServiceTest {
         // Then
         assertThat(response).isNotNull();
         assertThat(response.getToken()).isEqualTo("test-jwt-token");
+        assertThat(response.getRefreshToken()).isEqualTo("test-refresh-token");
         assertThat(response.getId()).isEqualTo(1L);
         assertThat(response.getUsername()).isEqualTo("test@example.com");
         assertThat(response.getFirstName()).isEqualTo("John");
@@ -108,7 +125,7 @@ class AuthServiceTest {
         assertThat(response.getAdmin()).isFalse();
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(jwtUtils).generateJwtToken(authentication);
-        verify(userRepository).findByEmail("test@example.com");
+        verifyNoInteractions(userRepository);
     }
 
     @Test
@@ -121,41 +138,13 @@ class AuthServiceTest {
         assertThatThrownBy(() -> authService.authenticateUser(loginRequest))
                 .isInstanceOf(BadCredentialsException.class);
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(jwtUtils, never()).generateJwtToken(any());
+        verify(jwtUtils, never()).generateJwtToken(any(Authentication.class));
         verify(userRepository, never()).findByEmail(anyString());
     }
 
-    @Test
-    void testAuthenticateUser_UserNotFoundAfterAuthentication() {
-        // Given
-        Authentication authentication = mock(Authentication.class);
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenReturn(authentication);
-        when(authentication.getPrincipal()).thenReturn(userDetails);
-        when(jwtUtils.generateJwtToken(authentication)).thenReturn("test-jwt-token");
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.empty());
-
-        // When/Then
-        assertThatThrownBy(() -> authService.authenticateUser(loginRequest))
-                .isInstanceOf(BadRequestException.class)
-                .hasMessageContaining("User not found after authentication");
-        verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(jwtUtils).generateJwtToken(authentication);
-        verify(userRepository).findByEmail("test@example.com");
-    }
-
     @Test
     void testAuthenticateUser_AdminUser() {
         // Given
-        User adminUser = User.builder()
-                .id(2L)
-                .email("admin@example.com")
-                .firstName("Admin")
-                .lastName("User")
-                .password("encodedPassword")
-                .admin(true)
-                .build();
-
         UserDetailsImpl adminDetails = UserDetailsImpl.builder()
                 .id(2L)
                 .username("admin@example.com")
@@ -173,7 +162,6 @@ class AuthServiceTest {
                 .thenReturn(authentication);
         when(authentication.getPrincipal()).thenReturn(adminDetails);
         when(jwtUtils.generateJwtToken(authentication)).thenReturn("admin-jwt-token");
-        when(userRepository.findByEmail("admin@example.com")).thenReturn(Optional.of(adminUser));
 
         // When
         JwtResponse response = authService.authenticateUser(adminLoginRequest);
@@ -182,6 +170,76 @@ class AuthServiceTest {
         assertThat(response).isNotNull();
         assertThat(response.getAdmin()).isTrue();
         assertThat(response.getToken()).isEqualTo("admin-jwt-token");
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testRefresh_Success() {
+        // Given
+        User user = User.builder()
+                .id(1L)
+                .email("test@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .password("encoded")
+                .admin(true)
+                .build();
+        RefreshRequest refreshRequest = new RefreshRequest();
+        refreshRequest.setRefreshToken("old-refresh-token");
+        when(refreshTokenService.rotate("old-refresh-token"))
+                .thenReturn(new RefreshTokenService.Rotation("new-refresh-token", user));
+        when(jwtUtils.generateJwtToken(any(UserDetailsImpl.class))).thenReturn("new-jwt-token");
+
+        // When
+        JwtResponse response = authService.refresh(refreshRequest);
+
+        // Then
+        assertThat(response.getToken()).isEqualTo("new-jwt-token");
+        assertThat(response.getRefreshToken()).isEqualTo("new-refresh-token");
+        assertThat(response.getId()).isEqualTo(1L);
+        assertThat(response.getUsername()).isEqualTo("test@example.com");
+        assertThat(response.getAdmin()).isTrue();
+        verifyNoInteractions(authenticationManager, passwordEncoder, passwordHashingExecutor);
+    }
+
+    @Test
+    void testRefresh_InvalidToken() {
+        // Given
+        RefreshRequest refreshRequest = new RefreshRequest();
+        refreshRequest.setRefreshToken("bad-token");
+        when(refreshTokenService.rotate("bad-token")).thenThrow(new UnauthorizedException("Invalid refresh token"));
+
+        // When/Then
+        assertThatThrownBy(() -> authService.refresh(refreshRequest))
+                .isInstanceOf(UnauthorizedException.class);
+        verify(jwtUtils, never()).generateJwtToken(any(UserDetailsImpl.class));
+    }
+
+    @Test
+    void testLogout_RevokesAccessAndRefreshTokens() {
+        // Given
+        Claims claims = mock(Claims.class);
+        when(jwtClaimsCache.getVerifiedClaims("access-token")).thenReturn(claims);
+
+        // When
+        MessageResponse response = authService.logout("access-token", "refresh-token");
+
+        // Then
+        assertThat(response.getMessage()).isEqualTo("Logged out successfully!");
+        verify(tokenRevocationList).revoke(claims);
+        verify(refreshTokenService).revoke("refresh-token");
+    }
+
+    @Test
+    void testLogout_InvalidAccessToken() {
+        // Given
+        when(jwtClaimsCache.getVerifiedClaims("bad-token")).thenReturn(null);
+
+        // When
+        authService.logout("bad-token", null);
+
+        // Then
+        verifyNoInteractions(tokenRevocationList, refreshTokenService);
     }
 
     @Test
@@ -210,6 +268,7 @@ class AuthServiceTest {
         verify(authMapper).toUser(signupRequest);
         verify(passwordEncoder).encode("password123");
         verify(userRepository).save(any(User.class));
+        verify(userDetailsCache).invalidate("newuser@example.com");
     }
 
     @Test
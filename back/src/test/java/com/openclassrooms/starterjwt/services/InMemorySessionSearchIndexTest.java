@@ -0,0 +1,86 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InMemorySessionSearchIndexTest {
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    private InMemorySessionSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(sessionRepository.findSearchableText()).thenReturn(List.of(
+                new Object[]{1L, "Morning yoga", "Gentle stretching"},
+                new Object[]{2L, "Pilates", "Core work with some yoga"},
+                new Object[]{3L, "Meditation", "Breathing"}));
+        index = new InMemorySessionSearchIndex(sessionRepository);
+        index.rebuild();
+    }
+
+    @Test
+    void testSearch_RanksNameMatchFirst() {
+        // When
+        SessionSearchIndex.Result result = index.search(List.of("yoga"), 0, 10);
+
+        // Then
+        assertThat(result.total()).isEqualTo(2);
+        assertThat(result.hits()).extracting(SessionSearchIndex.Hit::sessionId).containsExactly(1L, 2L);
+        assertThat(result.hits().get(0).score()).isGreaterThan(result.hits().get(1).score());
+    }
+
+    @Test
+    void testSearch_SessionsMatchingMoreWordsRankHigher() {
+        // When
+        SessionSearchIndex.Result result = index.search(List.of("yoga", "core"), 0, 10);
+
+        // Then
+        assertThat(result.hits()).extracting(SessionSearchIndex.Hit::sessionId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void testSearch_Pages() {
+        // When
+        SessionSearchIndex.Result result = index.search(List.of("yoga"), 1, 1);
+
+        // Then
+        assertThat(result.total()).isEqualTo(2);
+        assertThat(result.hits()).extracting(SessionSearchIndex.Hit::sessionId).containsExactly(2L);
+        assertThat(index.search(List.of("yoga"), 5, 1).hits()).isEmpty();
+    }
+
+    @Test
+    void testIndex_ReplacesPreviousText() {
+        // When
+        index.index(3L, "Yoga nidra", "Guided relaxation");
+
+        // Then
+        assertThat(index.search(List.of("breathing"), 0, 10).total()).isZero();
+        assertThat(index.search(List.of("nidra"), 0, 10).hits())
+                .extracting(SessionSearchIndex.Hit::sessionId).containsExactly(3L);
+        assertThat(index.search(List.of("yoga"), 0, 10).total()).isEqualTo(3);
+    }
+
+    @Test
+    void testRemove_DropsSession() {
+        // When
+        index.remove(1L);
+
+        // Then
+        assertThat(index.search(List.of("yoga"), 0, 10).hits())
+                .extracting(SessionSearchIndex.Hit::sessionId).containsExactly(2L);
+        assertThat(index.search(List.of("morning"), 0, 10).total()).isZero();
+    }
+}
@@ -0,0 +1,159 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.UnauthorizedException;
+import com.openclassrooms.starterjwt.models.RefreshToken;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.RefreshTokenRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private RefreshTokenService refreshTokenService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, userRepository, 60000);
+        user = User.builder()
+                .id(1L)
+                .email("test@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .password("encoded")
+                .admin(false)
+                .build();
+    }
+
+    @Test
+    void testIssue_StoresOnlyTheHash() {
+        // Given
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+
+        // When
+        String token = refreshTokenService.issue(1L);
+
+        // Then
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        RefreshToken saved = captor.getValue();
+        assertThat(saved.getTokenHash()).isEqualTo(RefreshTokenService.hash(token)).isNotEqualTo(token);
+        assertThat(saved.getFamilyId()).isNotBlank();
+        assertThat(saved.getUser()).isSameAs(user);
+        assertThat(saved.getExpiresAt()).isAfter(LocalDateTime.now());
+    }
+
+    @Test
+    void testRotate_IssuesTokenInSameFamily() {
+        // Given
+        RefreshToken current = token("family-1", false, LocalDateTime.now().plusMinutes(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("old"))).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markUsed(10L)).thenReturn(1);
+
+        // When
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("old");
+
+        // Then
+        assertThat(rotation.user()).isSameAs(user);
+        assertThat(rotation.refreshToken()).isNotEqualTo("old");
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        assertThat(captor.getValue().getFamilyId()).isEqualTo("family-1");
+        verify(refreshTokenRepository, never()).revokeFamily(any());
+    }
+
+    @Test
+    void testRotate_ReusedTokenRevokesFamily() {
+        // Given
+        RefreshToken current = token("family-1", true, LocalDateTime.now().plusMinutes(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("old"))).thenReturn(Optional.of(current));
+
+        // When/Then
+        assertThatThrownBy(() -> refreshTokenService.rotate("old"))
+                .isInstanceOf(UnauthorizedException.class);
+        verify(refreshTokenRepository).revokeFamily("family-1");
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void testRotate_ConcurrentUseRevokesFamily() {
+        // Given - another request marked the token as used in between
+        RefreshToken current = token("family-1", false, LocalDateTime.now().plusMinutes(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("old"))).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markUsed(10L)).thenReturn(0);
+
+        // When/Then
+        assertThatThrownBy(() -> refreshTokenService.rotate("old"))
+                .isInstanceOf(UnauthorizedException.class);
+        verify(refreshTokenRepository).revokeFamily("family-1");
+    }
+
+    @Test
+    void testRotate_ExpiredToken() {
+        // Given
+        RefreshToken current = token("family-1", false, LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("old"))).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markUsed(10L)).thenReturn(1);
+
+        // When/Then
+        assertThatThrownBy(() -> refreshTokenService.rotate("old"))
+                .isInstanceOf(UnauthorizedException.class)
+                .hasMessageContaining("expired");
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void testRotate_UnknownToken() {
+        // Given
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.empty());
+
+        // When/Then
+        assertThatThrownBy(() -> refreshTokenService.rotate("unknown"))
+                .isInstanceOf(UnauthorizedException.class)
+                .hasMessage("Invalid refresh token");
+    }
+
+    @Test
+    void testPurgeExpired_DeletesInOneStatement() {
+        // Given
+        when(refreshTokenRepository.deleteExpired(any(LocalDateTime.class))).thenReturn(3);
+
+        // When
+        refreshTokenService.purgeExpired();
+
+        // Then
+        verify(refreshTokenRepository).deleteExpired(any(LocalDateTime.class));
+        verifyNoMoreInteractions(refreshTokenRepository);
+    }
+
+    private RefreshToken token(String familyId, boolean revoked, LocalDateTime expiresAt) {
+        return RefreshToken.builder()
+                .id(10L)
+                .tokenHash(RefreshTokenService.hash("old"))
+                .familyId(familyId)
+                .user(user)
+                .expiresAt(expiresAt)
+                .revoked(revoked)
+                .build();
+    }
+}
@@ -0,0 +1,222 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.models.CollectionVersion;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.response.BulkSessionResult;
+import com.openclassrooms.starterjwt.repository.CollectionVersionRepository;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistEntryRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionBulkServiceTest {
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Mock
+    private CollectionVersionRepository collectionVersionRepository;
+
+    @Mock
+    private SessionMapper sessionMapper;
+
+    @Mock
+    private TeacherService teacherService;
+
+    @Mock
+    private SessionService sessionService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SessionBulkService sessionBulkService;
+
+    private Teacher testTeacher;
+
+    @BeforeEach
+    void setUp() {
+        sessionBulkService = new SessionBulkService(sessionRepository, userRepository, waitlistEntryRepository,
+                collectionVersionRepository, sessionMapper, teacherService,
+                sessionService, Validation.buildDefaultValidatorFactory().getValidator(), eventPublisher);
+        ReflectionTestUtils.setField(sessionBulkService, "maxItems", 3);
+
+        testTeacher = Teacher.builder()
+                .id(1L)
+                .firstName("John")
+                .lastName("Doe")
+                .build();
+    }
+
+    @Test
+    void testSave_CreatesAndUpdatesInOneFlush() {
+        // Given
+        Session existing = Session.builder()
+                .id(1L)
+                .name("Old name")
+                .date(new Date())
+                .description("Old description")
+                .maxParticipants(2)
+                .build();
+        SessionDto update = sessionDto("Updated");
+        update.setId(1L);
+        update.setMaxParticipants(3);
+        SessionDto create = sessionDto("Created");
+        Session created = new Session();
+
+        when(sessionRepository.findAllById(Set.of(1L))).thenReturn(List.of(existing));
+        when(teacherService.findById(1L)).thenReturn(testTeacher);
+        when(sessionMapper.toEntity(create)).thenReturn(created);
+        when(sessionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            created.setId(2L);
+            return invocation.getArgument(0);
+        });
+
+        // When
+        List<BulkSessionResult> results = sessionBulkService.save(List.of(update, create));
+
+        // Then
+        assertThat(results).extracting(BulkSessionResult::getStatus)
+                .containsExactly(BulkSessionResult.Status.UPDATED, BulkSessionResult.Status.CREATED);
+        assertThat(results).extracting(BulkSessionResult::getId).containsExactly(1L, 2L);
+        assertThat(existing.getName()).isEqualTo("Updated");
+        assertThat(created.getTeacher()).isEqualTo(testTeacher);
+        verify(teacherService, times(1)).findById(1L);
+        verify(sessionRepository).flush();
+        verify(sessionRepository).syncParticipantCounts(List.of(1L, 2L));
+        verify(waitlistEntryRepository).deleteEnrolled(Set.of(1L));
+        verify(collectionVersionRepository).bump(CollectionVersion.SESSIONS);
+        // The capacity grew, so the waitlist is promoted
+        verify(sessionService).promoteFromWaitlist(1L);
+        // One event for the whole import
+        verify(eventPublisher).publishEvent(new SessionsBulkChangedEvent(List.of(2L), List.of(1L)));
+        verify(eventPublisher, never()).publishEvent(any(SessionChangedEvent.class));
+    }
+
+    @Test
+    void testSave_RemovedParticipantsPromoteWaitlist() {
+        // Given - two participants, one of whom is dropped from the list
+        Session existing = Session.builder()
+                .id(1L)
+                .name("Full session")
+                .date(new Date())
+                .description("Old description")
+                .maxParticipants(2)
+                .participantCount(2)
+                .build();
+        SessionDto update = sessionDto("Full session");
+        update.setId(1L);
+        update.setMaxParticipants(2);
+        update.setUsers(List.of(1L));
+
+        when(sessionRepository.findAllById(Set.of(1L))).thenReturn(List.of(existing));
+        when(userRepository.findAllById(Set.of(1L))).thenReturn(List.of(User.builder()
+                .id(1L).email("a@test.com").firstName("A").lastName("A").password("pw").admin(false).build()));
+        when(teacherService.findById(1L)).thenReturn(testTeacher);
+        when(sessionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<BulkSessionResult> results = sessionBulkService.save(List.of(update));
+
+        // Then
+        assertThat(results).extracting(BulkSessionResult::getStatus)
+                .containsExactly(BulkSessionResult.Status.UPDATED);
+        verify(waitlistEntryRepository).deleteEnrolled(Set.of(1L));
+        verify(sessionService).promoteFromWaitlist(1L);
+    }
+
+    @Test
+    void testSave_InvalidSessionWritesNothing() {
+        // Given
+        SessionDto valid = sessionDto("Valid");
+        SessionDto unknownSession = sessionDto("Unknown");
+        unknownSession.setId(9L);
+        SessionDto invalid = sessionDto(" ");
+        invalid.setTeacher_id(2L);
+
+        when(teacherService.findById(1L)).thenReturn(testTeacher);
+        when(teacherService.findById(2L)).thenThrow(new NotFoundException("Teacher not found"));
+
+        // When
+        List<BulkSessionResult> results = sessionBulkService.save(List.of(valid, unknownSession, invalid));
+
+        // Then
+        assertThat(results).extracting(BulkSessionResult::getStatus).containsExactly(
+                BulkSessionResult.Status.SKIPPED, BulkSessionResult.Status.INVALID, BulkSessionResult.Status.INVALID);
+        assertThat(results.get(1).getErrors()).containsExactly("Session not found");
+        assertThat(results.get(2).getErrors()).containsExactly("name must not be blank", "Teacher not found");
+        verify(sessionRepository, never()).saveAll(anyList());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testSave_MoreParticipantsThanSeats() {
+        // Given
+        SessionDto full = sessionDto("Full");
+        full.setMaxParticipants(1);
+        full.setUsers(List.of(1L, 2L));
+
+        when(userRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(
+                User.builder().id(1L).email("a@test.com").firstName("A").lastName("A").password("pw").admin(false).build(),
+                User.builder().id(2L).email("b@test.com").firstName("B").lastName("B").password("pw").admin(false).build()));
+        when(teacherService.findById(1L)).thenReturn(testTeacher);
+
+        // When
+        List<BulkSessionResult> results = sessionBulkService.save(List.of(full));
+
+        // Then
+        assertThat(results).extracting(BulkSessionResult::getStatus)
+                .containsExactly(BulkSessionResult.Status.INVALID);
+        assertThat(results.get(0).getErrors()).containsExactly("Session has more participants than seats");
+        verify(sessionRepository, never()).saveAll(anyList());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testSave_TooManySessions() {
+        // Given
+        List<SessionDto> sessionDtos = List.of(sessionDto("1"), sessionDto("2"), sessionDto("3"), sessionDto("4"));
+
+        // When & Then
+        assertThatThrownBy(() -> sessionBulkService.save(sessionDtos))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("The request must contain between 1 and 3 sessions");
+        verifyNoInteractions(sessionRepository);
+    }
+
+    private SessionDto sessionDto(String name) {
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName(name);
+        sessionDto.setDate(new Date());
+        sessionDto.setDescription("Imported session");
+        sessionDto.setTeacher_id(1L);
+        return sessionDto;
+    }
+}
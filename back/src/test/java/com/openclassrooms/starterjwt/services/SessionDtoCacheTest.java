@@ -0,0 +1,133 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionDtoCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SessionDtoCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new SessionDtoCache(meterRegistry, 100, 100, 300);
+    }
+
+    @Test
+    void testFindSession_ReturnsCachedSession() {
+        // Given
+        SessionDtoCache.CachedSession session = cachedSession(1L);
+        cache.putSession(1L, session, cache.generation());
+
+        // When
+        SessionDtoCache.CachedSession found = cache.findSession(1L);
+
+        // Then
+        assertThat(found).isSameAs(session);
+        assertThat(cache.findSession(2L)).isNull();
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "sessions").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "sessions").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testOnSessionChanged_EvictsSessionAndEveryPage() {
+        // Given
+        SessionFilter filter = new SessionFilter();
+        cache.putSession(1L, cachedSession(1L), cache.generation());
+        cache.putSession(2L, cachedSession(2L), cache.generation());
+        cache.putPage(filter, new SessionDtoCache.CachedPage("sessions-1", List.of(), null), cache.generation());
+
+        // When
+        cache.onSessionChanged(new SessionChangedEvent(SessionChangedEvent.Type.PARTICIPANTS_CHANGED, 1L));
+
+        // Then
+        assertThat(cache.findSession(1L)).isNull();
+        assertThat(cache.findSession(2L)).isNotNull();
+        assertThat(cache.findPage(filter)).isNull();
+    }
+
+    @Test
+    void testOnSessionsBulkChanged_EvictsUpdatedSessionsAndEveryPage() {
+        // Given
+        SessionFilter filter = new SessionFilter();
+        cache.putSession(1L, cachedSession(1L), cache.generation());
+        cache.putSession(2L, cachedSession(2L), cache.generation());
+        cache.putPage(filter, new SessionDtoCache.CachedPage("sessions-1", List.of(), null), cache.generation());
+
+        // When
+        cache.onSessionsBulkChanged(new SessionsBulkChangedEvent(List.of(3L), List.of(1L)));
+
+        // Then
+        assertThat(cache.findSession(1L)).isNull();
+        assertThat(cache.findSession(2L)).isNotNull();
+        assertThat(cache.findPage(filter)).isNull();
+    }
+
+    @Test
+    void testPut_LoadedAcrossCommitIsNotCached() {
+        // Given - a load started before a change committed
+        SessionFilter filter = new SessionFilter();
+        long loadedAt = cache.generation();
+        cache.onSessionChanged(new SessionChangedEvent(SessionChangedEvent.Type.UPDATED, 1L));
+
+        // When
+        cache.putSession(1L, cachedSession(1L), loadedAt);
+        cache.putPage(filter, new SessionDtoCache.CachedPage("sessions-1", List.of(), null), loadedAt);
+
+        // Then
+        assertThat(cache.findSession(1L)).isNull();
+        assertThat(cache.findPage(filter)).isNull();
+    }
+
+    @Test
+    void testFindPage_KeyedByQuery() {
+        // Given
+        SessionFilter first = new SessionFilter();
+        first.setTeacherId(1L);
+        SessionFilter second = new SessionFilter();
+        second.setTeacherId(2L);
+        SessionDtoCache.CachedPage page = new SessionDtoCache.CachedPage("sessions-1", List.of(), "cursor");
+        cache.putPage(first, page, cache.generation());
+
+        // When
+        SessionFilter same = new SessionFilter();
+        same.setTeacherId(1L);
+
+        // Then
+        assertThat(cache.findPage(same)).isSameAs(page);
+        assertThat(cache.findPage(second)).isNull();
+    }
+
+    @Test
+    void testFindPage_UpcomingPageExpiresWhenFirstSessionStarts() {
+        // Given
+        SessionFilter filter = new SessionFilter();
+        filter.setUpcoming(true);
+        SessionDto started = cachedSession(1L).session();
+        started.setDate(new Date(System.currentTimeMillis() - 1000));
+
+        // When
+        cache.putPage(filter, new SessionDtoCache.CachedPage("sessions-1", List.of(started), null), cache.generation());
+
+        // Then
+        assertThat(cache.findPage(filter)).isNull();
+    }
+
+    private static SessionDtoCache.CachedSession cachedSession(Long id) {
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setId(id);
+        sessionDto.setDate(new Date());
+        return new SessionDtoCache.CachedSession("session-" + id + "-0", sessionDto);
+    }
+}
@@ -0,0 +1,170 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SessionEventBroadcasterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SessionEventBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        broadcaster = new SessionEventBroadcaster(meterRegistry, 60000, 2, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void testOnSessionChanged_DeliversToEveryClient() throws Exception {
+        // Given
+        RecordingEmitter first = new RecordingEmitter(2);
+        RecordingEmitter second = new RecordingEmitter(2);
+        broadcaster.subscribe(first);
+        broadcaster.subscribe(second);
+
+        // When
+        broadcaster.onSessionChanged(new SessionChangedEvent(SessionChangedEvent.Type.CREATED, 1L));
+        broadcaster.onSessionChanged(new SessionChangedEvent(SessionChangedEvent.Type.DELETED, 1L));
+
+        // Then
+        assertThat(first.sent.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(second.sent.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(first.events).hasSize(2);
+        assertThat(broadcaster.clientCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testOnSessionsBulkChanged_SendsOneMessage() throws Exception {
+        // Given - more sessions than the buffer holds
+        RecordingEmitter client = new RecordingEmitter(1);
+        broadcaster.subscribe(client);
+
+        // When
+        broadcaster.onSessionsBulkChanged(new SessionsBulkChangedEvent(List.of(1L, 2L, 3L), List.of(4L, 5L)));
+
+        // Then
+        assertThat(client.sent.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(client.events).hasSize(1);
+        assertThat(broadcaster.clientCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testOnSessionChanged_DropsSlowClientWithoutBlocking() throws Exception {
+        // Given - a client stuck in its first send, with a buffer of two
+        BlockingEmitter slow = new BlockingEmitter();
+        RecordingEmitter fast = new RecordingEmitter(4);
+        broadcaster.subscribe(slow);
+        broadcaster.subscribe(fast);
+        broadcaster.onSessionChanged(new SessionChangedEvent(SessionChangedEvent.Type.UPDATED, 1L));
+        assertThat(slow.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        awaitSent(fast, 1);
+
+        // When - the fast client drains each event before the next one, so only the slow one overflows
+        for (long id = 2; id <= 4; id++) {
+            broadcaster.onSessionChanged(new SessionChangedEvent(SessionChangedEvent.Type.UPDATED, id));
+            awaitSent(fast, (int) id);
+        }
+
+        // Then
+        assertThat(fast.sent.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(broadcaster.clientCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("session.stream.dropped").counter().count()).isEqualTo(1.0);
+        slow.release.countDown();
+    }
+
+    @Test
+    void testSubscribe_RejectsClientsAboveLimit() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            broadcaster.subscribe(new RecordingEmitter(1));
+        }
+
+        // When/Then
+        assertThatThrownBy(() -> broadcaster.subscribe(new RecordingEmitter(1)))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    void testSend_FailureRemovesClient() throws Exception {
+        // Given
+        FailingEmitter broken = new FailingEmitter();
+        broadcaster.subscribe(broken);
+
+        // When
+        broadcaster.onSessionChanged(new SessionChangedEvent(SessionChangedEvent.Type.CREATED, 1L));
+
+        // Then
+        assertThat(broken.attempted.await(5, TimeUnit.SECONDS)).isTrue();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (broadcaster.clientCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(broadcaster.clientCount()).isZero();
+    }
+
+    private static void awaitSent(RecordingEmitter emitter, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (emitter.events.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(emitter.events).hasSizeGreaterThanOrEqualTo(count);
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<SseEventBuilder> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sent;
+
+        RecordingEmitter(int expected) {
+            this.sent = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            events.add(builder);
+            sent.countDown();
+        }
+    }
+
+    private static class BlockingEmitter extends SseEmitter {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            entered.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class FailingEmitter extends SseEmitter {
+        private final CountDownLatch attempted = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            attempted.countDown();
+            throw new IOException("Broken pipe");
+        }
+    }
+}
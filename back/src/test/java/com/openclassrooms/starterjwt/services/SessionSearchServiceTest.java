@@ -0,0 +1,123 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.payload.response.SessionSearchResponse;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionSearchServiceTest {
+
+    @Mock
+    private SessionSearchIndex sessionSearchIndex;
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    private SessionSearchService sessionSearchService;
+
+    @BeforeEach
+    void setUp() {
+        sessionSearchService = new SessionSearchService(sessionSearchIndex, sessionRepository,
+                new SimpleMeterRegistry(), 20, 100);
+    }
+
+    @Test
+    void testSearch_KeepsIndexRankingAndSkipsDeletedSessions() {
+        // Given
+        Teacher teacher = Teacher.builder().id(9L).build();
+        Session first = Session.builder().id(2L).name("Yoga").description("Flow").date(new Date()).teacher(teacher).build();
+        Session second = Session.builder().id(1L).name("Pilates").description("Some yoga").date(new Date()).teacher(teacher).build();
+        when(sessionSearchIndex.search(List.of("yoga"), 20, 20)).thenReturn(new SessionSearchIndex.Result(List.of(
+                new SessionSearchIndex.Hit(2L, 3.0),
+                new SessionSearchIndex.Hit(5L, 2.0),
+                new SessionSearchIndex.Hit(1L, 1.0)), 43));
+        when(sessionRepository.findAllById(List.of(2L, 5L, 1L))).thenReturn(List.of(second, first));
+
+        // When
+        SessionSearchService.SearchPage page = sessionSearchService.search("Yoga!", 1, null);
+
+        // Then
+        assertThat(page.total()).isEqualTo(43);
+        assertThat(page.hits()).extracting(SessionSearchResponse::getId).containsExactly(2L, 1L);
+        assertThat(page.hits().get(0).getHighlightedName()).isEqualTo("<mark>Yoga</mark>");
+        assertThat(page.hits().get(0).getTeacher_id()).isEqualTo(9L);
+        assertThat(page.hits().get(1).getHighlightedDescription()).isEqualTo("Some <mark>yoga</mark>");
+    }
+
+    @Test
+    void testSearch_NoHitsSkipsLoading() {
+        // Given
+        when(sessionSearchIndex.search(anyList(), anyInt(), anyInt()))
+                .thenReturn(new SessionSearchIndex.Result(List.of(), 0));
+
+        // When
+        SessionSearchService.SearchPage page = sessionSearchService.search("nothing", 0, 10);
+
+        // Then
+        assertThat(page.hits()).isEmpty();
+        verifyNoInteractions(sessionRepository);
+    }
+
+    @Test
+    void testSearch_RejectsQueryWithoutIndexedWord() {
+        assertThatThrownBy(() -> sessionSearchService.search("a, to", 0, null))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("at least 3 characters");
+        verifyNoInteractions(sessionSearchIndex);
+    }
+
+    @Test
+    void testSearch_RejectsPageSizeOutOfRange() {
+        assertThatThrownBy(() -> sessionSearchService.search("yoga", 0, 101))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Page size must be between 1 and 100");
+        assertThatThrownBy(() -> sessionSearchService.search("yoga", -1, 10))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Page must not be negative");
+    }
+
+    @Test
+    void testHighlight_EscapesMarkup() {
+        // When
+        String highlighted = SessionSearchService.highlight("<b>Yoga</b> & yogi", Set.of("yoga"));
+
+        // Then
+        assertThat(highlighted).isEqualTo("&lt;b&gt;<mark>Yoga</mark>&lt;/b&gt; &amp; yogi");
+    }
+
+    @Test
+    void testSnippet_StartsNearFirstMatch() {
+        // Given
+        String text = "Warm up. ".repeat(40) + "Then a long yoga sequence. " + "Cool down. ".repeat(40);
+
+        // When
+        String snippet = SessionSearchService.snippet(text, Set.of("yoga"), 100);
+
+        // Then
+        assertThat(snippet).startsWith("…").endsWith("…").contains("long yoga sequence");
+        assertThat(snippet.length()).isLessThanOrEqualTo(102);
+    }
+
+    @Test
+    void testSnippet_ShortTextIsKept() {
+        assertThat(SessionSearchService.snippet("Some yoga", Set.of("yoga"), 100)).isEqualTo("Some yoga");
+    }
+}
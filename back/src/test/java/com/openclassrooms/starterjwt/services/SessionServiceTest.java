@@ -1,26 +1,42 @@
 package com.openclassrooms.starterjwt.services;
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionFilter;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.models.CollectionVersion;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.payload.response.CalendarDayResponse;
+import com.openclassrooms.starterjwt.payload.response.CalendarSessionResponse;
+import com.openclassrooms.starterjwt.repository.CollectionVersionRepository;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistEntryRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,12 +48,21 @@ class SessionServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Mock
+    private CollectionVersionRepository collectionVersionRepository;
+
     @Mock
     private SessionMapper sessionMapper;
 
     @Mock
     private TeacherService teacherService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private SessionService sessionService;
 
@@ -47,6 +72,10 @@ class SessionServiceTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(sessionService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(sessionService, "maxPageSize", 10);
+        ReflectionTestUtils.setField(sessionService, "calendarMaxDays", 31);
+
         testTeacher = Teacher.builder()
                 .id(1L)
                 .firstName("John")
@@ -68,7 +97,7 @@ class SessionServiceTest {
                 .date(new Date())
                 .description("Test session")
                 .teacher(testTeacher)
-                .users(new ArrayList<>())
+                .users(new HashSet<>())
                 .build();
     }
 
@@ -84,13 +113,15 @@ class SessionServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(1L);
         verify(sessionRepository).save(testSession);
+        verify(sessionRepository).syncParticipantCount(1L);
+        verify(eventPublisher).publishEvent(new SessionChangedEvent(SessionChangedEvent.Type.CREATED, 1L));
     }
 
     @Test
     void testGetById_Success() {
         // Given
         Long sessionId = 1L;
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(testSession));
+        when(sessionRepository.findWithTeacherById(sessionId)).thenReturn(Optional.of(testSession));
 
         // When
         Session result = sessionService.getById(sessionId);
@@ -98,20 +129,33 @@ class SessionServiceTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(sessionId);
-        verify(sessionRepository).findById(sessionId);
+        verify(sessionRepository).findWithTeacherById(sessionId);
+    }
+
+    @Test
+    void testFindETag_UsesRevision() {
+        // Given
+        when(sessionRepository.findRevisionById(1L)).thenReturn(Optional.of(7L));
+        when(sessionRepository.findRevisionById(2L)).thenReturn(Optional.empty());
+
+        // When/Then
+        assertThat(sessionService.findETag(1L)).contains("session-1-7");
+        assertThat(sessionService.findETag(2L)).isEmpty();
+        assertThat(sessionService.eTagOf(Session.builder().id(1L).revision(7L).build())).isEqualTo("session-1-7");
+        verify(sessionRepository, never()).findWithTeacherById(any());
     }
 
     @Test
     void testGetById_NotFound() {
         // Given
         Long sessionId = 999L;
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.empty());
+        when(sessionRepository.findWithTeacherById(sessionId)).thenReturn(Optional.empty());
 
         // When/Then
         assertThatThrownBy(() -> sessionService.getById(sessionId))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessageContaining("Session not found");
-        verify(sessionRepository).findById(sessionId);
+        verify(sessionRepository).findWithTeacherById(sessionId);
     }
 
     @Test
@@ -132,18 +176,207 @@ class SessionServiceTest {
         verify(sessionRepository).findAll();
     }
 
+    @Test
+    void testFindPage_ReturnsCursorWhenMoreRowsExist() {
+        // Given
+        Session first = Session.builder().id(1L).date(new Date(1000)).build();
+        Session second = Session.builder().id(2L).date(new Date(2000)).build();
+        Session third = Session.builder().id(3L).date(new Date(3000)).build();
+        when(sessionRepository.findPage(isNull(), isNull(), isNull(), isNull(), isNull(), eq(Limit.of(3))))
+                .thenReturn(Arrays.asList(first, second, third));
+
+        // When
+        SessionService.SessionPage page = sessionService.findPage(new SessionFilter());
+
+        // Then
+        assertThat(page.sessions()).containsExactly(first, second);
+        assertThat(page.nextCursor()).isNotNull();
+    }
+
+    @Test
+    void testFindPage_ReadsParticipantIdsOfPage() {
+        // Given
+        Session first = Session.builder().id(1L).date(new Date(1000)).build();
+        Session second = Session.builder().id(2L).date(new Date(2000)).build();
+        when(sessionRepository.findPage(isNull(), isNull(), isNull(), isNull(), isNull(), eq(Limit.of(3))))
+                .thenReturn(Arrays.asList(first, second));
+        when(sessionRepository.findParticipantIds(List.of(1L, 2L)))
+                .thenReturn(List.of(new Object[]{1L, 4L}, new Object[]{1L, 7L}));
+
+        // When
+        SessionService.SessionPage page = sessionService.findPage(new SessionFilter());
+
+        // Then
+        assertThat(page.participantIds().get(1L)).containsExactly(4L, 7L);
+        assertThat(page.participantIds()).doesNotContainKey(2L);
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void testFindParticipantIds_GroupsRowsBySession() {
+        // Given
+        when(sessionRepository.findParticipantIds(List.of(1L, 2L, 3L))).thenReturn(List.of(
+                new Object[]{1L, 2L},
+                new Object[]{1L, 3L},
+                new Object[]{3L, 1L},
+                new Object[]{3L, 2L},
+                new Object[]{3L, 5L}));
+
+        // When
+        Map<Long, long[]> result = sessionService.findParticipantIds(List.of(1L, 2L, 3L));
+
+        // Then
+        assertThat(result).hasSize(2);
+        assertThat(result.get(1L)).containsExactly(2L, 3L);
+        assertThat(result.get(3L)).containsExactly(1L, 2L, 5L);
+    }
+
+    @Test
+    void testFindPage_CursorResumesAfterLastRow() {
+        // Given
+        Session first = Session.builder().id(1L).date(new Date(1000)).build();
+        Session second = Session.builder().id(2L).date(new Date(2000)).build();
+        Session third = Session.builder().id(3L).date(new Date(3000)).build();
+        when(sessionRepository.findPage(isNull(), isNull(), isNull(), isNull(), isNull(), eq(Limit.of(3))))
+                .thenReturn(Arrays.asList(first, second, third));
+        when(sessionRepository.findPage(isNull(), isNull(), isNull(), eq(new Date(2000)), eq(2L), eq(Limit.of(3))))
+                .thenReturn(List.of(third));
+        SessionFilter filter = new SessionFilter();
+        filter.setCursor(sessionService.findPage(new SessionFilter()).nextCursor());
+
+        // When
+        SessionService.SessionPage page = sessionService.findPage(filter);
+
+        // Then
+        assertThat(page.sessions()).containsExactly(third);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void testFindPage_InvalidCursor() {
+        // Given
+        SessionFilter filter = new SessionFilter();
+        filter.setCursor("not-a-cursor");
+
+        // When/Then
+        assertThatThrownBy(() -> sessionService.findPage(filter))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Invalid cursor");
+        verifyNoInteractions(sessionRepository);
+    }
+
+    @Test
+    void testFindPage_PageSizeAboveMaximum() {
+        // Given
+        SessionFilter filter = new SessionFilter();
+        filter.setSize(11);
+
+        // When/Then
+        assertThatThrownBy(() -> sessionService.findPage(filter))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(sessionRepository);
+    }
+
+    @Test
+    void testFindPage_UpcomingStartsNow() {
+        // Given
+        SessionFilter filter = new SessionFilter();
+        filter.setUpcoming(true);
+        filter.setTeacherId(1L);
+        when(sessionRepository.findPage(eq(1L), any(Date.class), isNull(), isNull(), isNull(), eq(Limit.of(3))))
+                .thenReturn(List.of());
+
+        // When
+        SessionService.SessionPage page = sessionService.findPage(filter);
+
+        // Then
+        assertThat(page.sessions()).isEmpty();
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void testGetCollectionETag_UpcomingChangesWhenNextSessionStarts() {
+        // Given
+        SessionFilter filter = new SessionFilter();
+        filter.setUpcoming(true);
+        when(collectionVersionRepository.findVersion(CollectionVersion.SESSIONS)).thenReturn(Optional.of(3L));
+        when(sessionRepository.findNextStart(any(Date.class)))
+                .thenReturn(new Date(1000L))
+                .thenReturn(new Date(2000L));
+
+        // When
+        String beforeStart = sessionService.getCollectionETag(filter);
+        String afterStart = sessionService.getCollectionETag(filter);
+
+        // Then - same rows, but the first upcoming session has started
+        assertThat(beforeStart).isEqualTo("sessions-3-" + Integer.toHexString(filter.hashCode()) + "-1000");
+        assertThat(afterStart).isNotEqualTo(beforeStart);
+        assertThat(sessionService.getCollectionETag(new SessionFilter())).startsWith("sessions-3-");
+    }
+
+    @Test
+    void testGetCollectionETag_DependsOnQuery() {
+        // Given
+        SessionFilter first = new SessionFilter();
+        SessionFilter second = new SessionFilter();
+        second.setTeacherId(2L);
+        when(collectionVersionRepository.findVersion(CollectionVersion.SESSIONS)).thenReturn(Optional.of(3L));
+
+        // When & Then
+        assertThat(sessionService.getCollectionETag(first)).isNotEqualTo(sessionService.getCollectionETag(second));
+    }
+
+    @Test
+    void testFindCalendar_GroupsByDay() {
+        // Given
+        LocalDate monday = LocalDate.of(2026, 3, 2);
+        CalendarSessionResponse morning = calendarSession(1L, monday.atTime(9, 0));
+        CalendarSessionResponse evening = calendarSession(2L, monday.atTime(18, 30));
+        CalendarSessionResponse wednesday = calendarSession(3L, monday.plusDays(2).atTime(12, 0));
+        Date from = Date.from(monday.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        Date to = Date.from(monday.plusDays(7).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        when(sessionRepository.findCalendar(from, to, 1L)).thenReturn(List.of(morning, evening, wednesday));
+
+        // When
+        List<CalendarDayResponse> days = sessionService.findCalendar(monday, monday.plusDays(6), 1L);
+
+        // Then
+        assertThat(days).extracting(CalendarDayResponse::getDay).containsExactly(monday, monday.plusDays(2));
+        assertThat(days.get(0).getSessions()).containsExactly(morning, evening);
+        assertThat(days.get(1).getSessions()).containsExactly(wednesday);
+    }
+
+    @Test
+    void testFindCalendar_RangeTooWide() {
+        // Given
+        LocalDate from = LocalDate.of(2026, 3, 1);
+
+        // When/Then
+        assertThatThrownBy(() -> sessionService.findCalendar(from, from.plusDays(31), null))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("The range must not exceed 31 days");
+        assertThatThrownBy(() -> sessionService.findCalendar(from, from.minusDays(1), null))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(sessionRepository);
+    }
+
+    private static CalendarSessionResponse calendarSession(Long id, LocalDateTime start) {
+        return new CalendarSessionResponse(id, "Yoga", Date.from(start.atZone(ZoneId.systemDefault()).toInstant()),
+                1L, 0, null);
+    }
+
     @Test
     void testDelete_Success() {
         // Given
         Long sessionId = 1L;
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(testSession));
+        when(sessionRepository.findWithTeacherById(sessionId)).thenReturn(Optional.of(testSession));
         doNothing().when(sessionRepository).deleteById(sessionId);
 
         // When
         sessionService.delete(sessionId);
 
         // Then
-        verify(sessionRepository).findById(sessionId);
+        verify(sessionRepository).findWithTeacherById(sessionId);
         verify(sessionRepository).deleteById(sessionId);
     }
 
@@ -158,7 +391,7 @@ class SessionServiceTest {
                 .description("Updated description")
                 .build();
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(testSession));
+        when(sessionRepository.findWithTeacherById(sessionId)).thenReturn(Optional.of(testSession));
         when(sessionRepository.save(any(Session.class))).thenReturn(updatedSession);
 
         // When
@@ -168,73 +401,301 @@ class SessionServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(sessionId);
         assertThat(result.getName()).isEqualTo("Updated Session");
-        verify(sessionRepository).findById(sessionId);
+        verify(sessionRepository).findWithTeacherById(sessionId);
         verify(sessionRepository).save(any(Session.class));
+        // Users enrolled through the new list leave the waitlist
+        verify(waitlistEntryRepository).deleteEnrolled(List.of(sessionId));
+        verify(collectionVersionRepository).bump(CollectionVersion.SESSIONS);
+    }
+
+    @Test
+    void testUpdate_MoreParticipantsThanSeats() {
+        // Given
+        User otherUser = User.builder()
+                .id(2L)
+                .email("other@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .password("encodedPassword")
+                .admin(false)
+                .build();
+        Session updatedSession = Session.builder()
+                .name("Updated Session")
+                .date(new Date())
+                .description("Updated description")
+                .maxParticipants(1)
+                .users(Set.of(testUser, otherUser))
+                .build();
+        when(sessionRepository.findWithTeacherById(1L)).thenReturn(Optional.of(testSession));
+
+        // When/Then
+        assertThatThrownBy(() -> sessionService.update(1L, updatedSession))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Session has more participants than seats");
+        verify(sessionRepository, never()).save(any(Session.class));
+    }
+
+    @Test
+    void testCreate_MoreParticipantsThanSeats() {
+        // Given
+        User otherUser = User.builder()
+                .id(2L)
+                .email("other@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .password("encodedPassword")
+                .admin(false)
+                .build();
+        testSession.setMaxParticipants(1);
+        testSession.setUsers(Set.of(testUser, otherUser));
+
+        // When/Then
+        assertThatThrownBy(() -> sessionService.create(testSession))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Session has more participants than seats");
+        verifyNoInteractions(sessionRepository);
     }
 
     @Test
     void testParticipate_Success() {
         // Given
-        Long sessionId = 1L;
-        Long userId = 1L;
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(testSession));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
-        when(sessionRepository.save(any(Session.class))).thenReturn(testSession);
+        when(sessionRepository.reserveSeat(1L)).thenReturn(1);
+        when(sessionRepository.addParticipant(1L, 1L)).thenReturn(1);
 
         // When
-        sessionService.participate(sessionId, userId);
+        sessionService.participate(1L, 1L);
 
         // Then
-        verify(sessionRepository).findById(sessionId);
-        verify(userRepository).findById(userId);
-        verify(sessionRepository).save(any(Session.class));
+        verify(sessionRepository).reserveSeat(1L);
+        verify(sessionRepository).addParticipant(1L, 1L);
+        verify(eventPublisher).publishEvent(new SessionChangedEvent(SessionChangedEvent.Type.PARTICIPANTS_CHANGED, 1L));
+        verify(sessionRepository, never()).findDetailedById(any());
+        verify(sessionRepository, never()).save(any(Session.class));
     }
 
     @Test
     void testParticipate_UserAlreadyParticipating() {
         // Given
-        Long sessionId = 1L;
-        Long userId = 1L;
-        testSession.getUsers().add(testUser);
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(testSession));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
+        when(sessionRepository.reserveSeat(1L)).thenReturn(1);
+        when(sessionRepository.addParticipant(1L, 1L)).thenReturn(0);
+        when(userRepository.existsById(1L)).thenReturn(true);
 
         // When/Then
-        assertThatThrownBy(() -> sessionService.participate(sessionId, userId))
+        assertThatThrownBy(() -> sessionService.participate(1L, 1L))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("already participating");
+    }
+
+    @Test
+    void testParticipate_ConcurrentDuplicate() {
+        // Given
+        when(sessionRepository.reserveSeat(1L)).thenReturn(1);
+        when(sessionRepository.addParticipant(1L, 1L))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry '1-1' for key 'participate.PRIMARY'"));
+
+        // When/Then
+        assertThatThrownBy(() -> sessionService.participate(1L, 1L))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("already participating");
+    }
+
+    @Test
+    void testParticipate_SessionNotFound() {
+        // Given
+        when(sessionRepository.reserveSeat(999L)).thenReturn(0);
+        when(sessionRepository.existsById(999L)).thenReturn(false);
+
+        // When/Then
+        assertThatThrownBy(() -> sessionService.participate(999L, 1L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("Session not found");
+        verify(sessionRepository, never()).addParticipant(any(), any());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testParticipate_SessionFull() {
+        // Given
+        when(sessionRepository.reserveSeat(1L)).thenReturn(0);
+        when(sessionRepository.existsById(1L)).thenReturn(true);
+        when(sessionRepository.countParticipant(1L, 2L)).thenReturn(0L);
+
+        // When/Then
+        assertThatThrownBy(() -> sessionService.participate(1L, 2L))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Session is full");
+        verify(sessionRepository, never()).addParticipant(any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testParticipate_SessionFullAndAlreadyParticipating() {
+        // Given
+        when(sessionRepository.reserveSeat(1L)).thenReturn(0);
+        when(sessionRepository.existsById(1L)).thenReturn(true);
+        when(sessionRepository.countParticipant(1L, 1L)).thenReturn(1L);
+
+        // When/Then
+        assertThatThrownBy(() -> sessionService.participate(1L, 1L))
                 .isInstanceOf(BadRequestException.class)
                 .hasMessageContaining("already participating");
-        verify(sessionRepository, never()).save(any(Session.class));
+    }
+
+    @Test
+    void testParticipate_UserNotFound() {
+        // Given
+        when(sessionRepository.reserveSeat(1L)).thenReturn(1);
+        when(sessionRepository.addParticipant(1L, 999L)).thenReturn(0);
+        when(userRepository.existsById(999L)).thenReturn(false);
+
+        // When/Then
+        assertThatThrownBy(() -> sessionService.participate(1L, 999L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("User not found");
     }
 
     @Test
     void testNoLongerParticipate_Success() {
         // Given
-        Long sessionId = 1L;
-        Long userId = 1L;
-        testSession.getUsers().add(testUser);
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(testSession));
-        when(sessionRepository.save(any(Session.class))).thenReturn(testSession);
+        when(sessionRepository.lockFreeSeats(1L)).thenReturn(0, 1);
+        when(sessionRepository.removeParticipants(1L, List.of(1L))).thenReturn(1);
 
         // When
-        sessionService.noLongerParticipate(sessionId, userId);
+        sessionService.noLongerParticipate(1L, 1L);
 
         // Then
-        verify(sessionRepository).findById(sessionId);
-        verify(sessionRepository).save(any(Session.class));
+        verify(sessionRepository).removeParticipants(1L, List.of(1L));
+        verify(sessionRepository).releaseSeats(1L, 1);
+        verify(waitlistEntryRepository).findHeadIds(1L, Limit.of(1));
+        verify(sessionRepository, never()).save(any(Session.class));
+    }
+
+    @Test
+    void testNoLongerParticipate_PromotesNextWaitingUser() {
+        // Given
+        when(sessionRepository.lockFreeSeats(1L)).thenReturn(0, 1);
+        when(sessionRepository.removeParticipants(1L, List.of(1L))).thenReturn(1);
+        when(waitlistEntryRepository.findHeadIds(1L, Limit.of(1))).thenReturn(List.of(10L));
+        when(sessionRepository.addWaitlisted(List.of(10L))).thenReturn(1);
+
+        // When
+        sessionService.noLongerParticipate(1L, 1L);
+
+        // Then
+        verify(waitlistEntryRepository).deleteByIds(List.of(10L));
+        verify(sessionRepository).takeSeats(1L, 1);
+    }
+
+    @Test
+    void testNoLongerParticipate_BulkCancellationPromotesInOneBatch() {
+        // Given
+        List<Long> cancelled = List.of(1L, 2L, 3L);
+        when(sessionRepository.lockFreeSeats(1L)).thenReturn(0, 3);
+        when(sessionRepository.removeParticipants(1L, cancelled)).thenReturn(3);
+        when(waitlistEntryRepository.findHeadIds(1L, Limit.of(3))).thenReturn(List.of(10L, 11L));
+        when(sessionRepository.addWaitlisted(List.of(10L, 11L))).thenReturn(2);
+
+        // When
+        int removed = sessionService.noLongerParticipate(1L, cancelled);
+
+        // Then
+        assertThat(removed).isEqualTo(3);
+        verify(sessionRepository).releaseSeats(1L, 3);
+        verify(sessionRepository, times(1)).addWaitlisted(any());
+        verify(sessionRepository).takeSeats(1L, 2);
     }
 
     @Test
     void testNoLongerParticipate_UserNotParticipating() {
         // Given
-        Long sessionId = 1L;
-        Long userId = 1L;
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(testSession));
+        when(sessionRepository.lockFreeSeats(1L)).thenReturn(0);
+        when(sessionRepository.removeParticipants(1L, List.of(1L))).thenReturn(0);
 
         // When/Then
-        assertThatThrownBy(() -> sessionService.noLongerParticipate(sessionId, userId))
+        assertThatThrownBy(() -> sessionService.noLongerParticipate(1L, 1L))
                 .isInstanceOf(BadRequestException.class)
                 .hasMessageContaining("not participating");
-        verify(sessionRepository, never()).save(any(Session.class));
+        verifyNoInteractions(waitlistEntryRepository);
+    }
+
+    @Test
+    void testNoLongerParticipate_SessionNotFound() {
+        // Given
+        when(sessionRepository.lockFreeSeats(999L)).thenReturn(null);
+
+        // When/Then
+        assertThatThrownBy(() -> sessionService.noLongerParticipate(999L, 1L))
+                .isInstanceOf(NotFoundException.class);
+        verify(sessionRepository, never()).removeParticipants(any(), any());
+    }
+
+    @Test
+    void testPromoteFromWaitlist_NoFreeSeats() {
+        // Given
+        when(sessionRepository.lockFreeSeats(1L)).thenReturn(0);
+
+        // When
+        int promoted = sessionService.promoteFromWaitlist(1L);
+
+        // Then
+        assertThat(promoted).isZero();
+        verifyNoInteractions(waitlistEntryRepository);
+    }
+
+    @Test
+    void testJoinWaitlist_Success() {
+        // Given
+        when(sessionRepository.lockFreeSeats(1L)).thenReturn(0);
+        when(userRepository.existsById(2L)).thenReturn(true);
+        when(sessionRepository.countParticipant(1L, 2L)).thenReturn(0L);
+        when(waitlistEntryRepository.findIdBySessionIdAndUserId(1L, 2L)).thenReturn(Optional.of(42L));
+        when(waitlistEntryRepository.countAhead(1L, 42L)).thenReturn(3L);
+
+        // When
+        long position = sessionService.joinWaitlist(1L, 2L);
+
+        // Then
+        assertThat(position).isEqualTo(4L);
+        verify(waitlistEntryRepository).save(any(WaitlistEntry.class));
+    }
+
+    @Test
+    void testJoinWaitlist_SessionHasFreeSeats() {
+        // Given
+        when(sessionRepository.lockFreeSeats(1L)).thenReturn(2);
+        when(userRepository.existsById(2L)).thenReturn(true);
+        when(sessionRepository.countParticipant(1L, 2L)).thenReturn(0L);
+
+        // When/Then
+        assertThatThrownBy(() -> sessionService.joinWaitlist(1L, 2L))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Session has free seats");
+        verify(waitlistEntryRepository, never()).save(any());
+    }
+
+    @Test
+    void testJoinWaitlist_AlreadyWaiting() {
+        // Given
+        when(sessionRepository.lockFreeSeats(1L)).thenReturn(0);
+        when(userRepository.existsById(2L)).thenReturn(true);
+        when(sessionRepository.countParticipant(1L, 2L)).thenReturn(0L);
+        when(waitlistEntryRepository.save(any(WaitlistEntry.class)))
+                .thenThrow(new DataIntegrityViolationException("ux_waitlist_entries_session_user"));
+
+        // When/Then
+        assertThatThrownBy(() -> sessionService.joinWaitlist(1L, 2L))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("User is already on the waitlist");
+    }
+
+    @Test
+    void testGetWaitlistPosition_NotWaiting() {
+        // Given
+        when(waitlistEntryRepository.findIdBySessionIdAndUserId(1L, 2L)).thenReturn(Optional.empty());
+
+        // When/Then
+        assertThatThrownBy(() -> sessionService.getWaitlistPosition(1L, 2L))
+                .isInstanceOf(NotFoundException.class);
     }
 
     @Test
@@ -264,8 +725,7 @@ class SessionServiceTest {
 
         when(sessionMapper.toEntity(sessionDto)).thenReturn(session);
         when(teacherService.findById(1L)).thenReturn(testTeacher);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
+        when(userRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(user2, testUser));
 
         // When
         Session result = sessionService.toEntity(sessionDto);
@@ -273,12 +733,11 @@ class SessionServiceTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getTeacher()).isEqualTo(testTeacher);
-        assertThat(result.getUsers()).hasSize(2);
-        assertThat(result.getUsers()).contains(testUser, user2);
+        assertThat(result.getUsers()).containsExactly(testUser, user2);
         verify(sessionMapper).toEntity(sessionDto);
         verify(teacherService).findById(1L);
-        verify(userRepository).findById(1L);
-        verify(userRepository).findById(2L);
+        verify(userRepository).findAllById(List.of(1L, 2L));
+        verify(userRepository, never()).findById(any());
     }
 
     @Test
@@ -298,7 +757,7 @@ class SessionServiceTest {
                 .build();
 
         when(sessionMapper.toEntity(sessionDto)).thenReturn(session);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.findAllById(List.of(1L))).thenReturn(List.of(testUser));
 
         // When
         Session result = sessionService.toEntity(sessionDto);
@@ -309,7 +768,7 @@ class SessionServiceTest {
         assertThat(result.getUsers()).hasSize(1);
         verify(sessionMapper).toEntity(sessionDto);
         verify(teacherService, never()).findById(any());
-        verify(userRepository).findById(1L);
+        verify(userRepository).findAllById(List.of(1L));
     }
 
     @Test
@@ -340,7 +799,7 @@ class SessionServiceTest {
         assertThat(result.getUsers()).isEmpty();
         verify(sessionMapper).toEntity(sessionDto);
         verify(teacherService).findById(1L);
-        verify(userRepository, never()).findById(any());
+        verify(userRepository, never()).findAllById(any());
     }
 
     @Test
@@ -361,7 +820,7 @@ class SessionServiceTest {
 
         when(sessionMapper.toEntity(sessionDto)).thenReturn(session);
         when(teacherService.findById(1L)).thenReturn(testTeacher);
-        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+        when(userRepository.findAllById(List.of(999L))).thenReturn(List.of());
 
         // When/Then
         assertThatThrownBy(() -> sessionService.toEntity(sessionDto))
@@ -369,7 +828,24 @@ class SessionServiceTest {
                 .hasMessageContaining("User not found with id: 999");
         verify(sessionMapper).toEntity(sessionDto);
         verify(teacherService).findById(1L);
-        verify(userRepository).findById(999L);
+        verify(userRepository).findAllById(List.of(999L));
+    }
+
+    @Test
+    void testToEntity_ReportsEveryMissingUser() {
+        // Given
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setTeacher_id(1L);
+        sessionDto.setUsers(Arrays.asList(1L, 998L, 999L));
+
+        when(sessionMapper.toEntity(sessionDto)).thenReturn(new Session());
+        when(teacherService.findById(1L)).thenReturn(testTeacher);
+        when(userRepository.findAllById(List.of(1L, 998L, 999L))).thenReturn(List.of(testUser));
+
+        // When/Then
+        assertThatThrownBy(() -> sessionService.toEntity(sessionDto))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("Users not found with ids: 998, 999");
     }
 
     @Test
@@ -413,7 +889,7 @@ class SessionServiceTest {
                 .date(new Date())
                 .description("Test session")
                 .teacher(null)
-                .users(new ArrayList<>())
+                .users(new HashSet<>())
                 .build();
 
         SessionDto sessionDto = new SessionDto();
@@ -433,6 +909,21 @@ class SessionServiceTest {
         verify(sessionMapper).toDto(sessionWithoutTeacher);
     }
 
+    @Test
+    void testToDto_Success_WithParticipantIds() {
+        // Given
+        SessionDto sessionDto = new SessionDto();
+        when(sessionMapper.toDto(testSession)).thenReturn(sessionDto);
+
+        // When
+        SessionDto result = sessionService.toDto(testSession, new long[]{3L, 8L});
+
+        // Then
+        assertThat(result.getTeacher_id()).isEqualTo(1L);
+        assertThat(result.getUsers()).containsExactly(3L, 8L);
+        verifyNoInteractions(sessionRepository);
+    }
+
     @Test
     void testToDto_Success_WithEmptyUsersList() {
         // Given
@@ -0,0 +1,101 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.dto.TeacherDto;
+import com.openclassrooms.starterjwt.mapper.TeacherMapper;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TeacherDirectoryTest {
+
+    @Mock
+    private TeacherRepository teacherRepository;
+
+    @Mock
+    private TeacherMapper teacherMapper;
+
+    private TeacherDirectory teacherDirectory;
+
+    private Teacher teacher;
+
+    @BeforeEach
+    void setUp() {
+        teacherDirectory = new TeacherDirectory(teacherRepository, teacherMapper, new ObjectMapper().findAndRegisterModules());
+        teacher = Teacher.builder().id(7L).firstName("John").lastName("Doe").build();
+    }
+
+    @Test
+    void testRefresh_BuildsSnapshotWithSerialisedList() {
+        // Given
+        TeacherDto teacherDto = new TeacherDto();
+        teacherDto.setId(7L);
+        teacherDto.setFirstName("John");
+        when(teacherRepository.findAll(any(Sort.class))).thenReturn(List.of(teacher));
+        when(teacherMapper.toDto(anyList())).thenReturn(List.of(teacherDto));
+
+        // When
+        teacherDirectory.refresh();
+
+        // Then
+        TeacherDirectory.Snapshot snapshot = teacherDirectory.snapshot();
+        assertThat(snapshot.eTag()).startsWith("teachers-");
+        assertThat(snapshot.teachers()).containsExactly(teacher);
+        assertThat(teacherDirectory.find(7L)).containsSame(teacher);
+        assertThat(teacherDirectory.find(8L)).isEmpty();
+        assertThat(new String(snapshot.json(), StandardCharsets.UTF_8))
+                .contains("\"id\":7")
+                .contains("\"firstName\":\"John\"");
+    }
+
+    @Test
+    void testRefresh_UnchangedContentKeepsSnapshot() {
+        // Given
+        when(teacherRepository.findAll(any(Sort.class))).thenReturn(List.of(teacher));
+        when(teacherMapper.toDto(anyList())).thenReturn(List.of());
+        teacherDirectory.refresh();
+        TeacherDirectory.Snapshot first = teacherDirectory.snapshot();
+
+        // When
+        teacherDirectory.refresh();
+
+        // Then
+        assertThat(teacherDirectory.snapshot()).isSameAs(first);
+    }
+
+    @Test
+    void testRefresh_PicksUpInPlaceEdit() {
+        // Given - a name changed by direct SQL moves neither the row count, the max id nor updated_at
+        TeacherDto before = new TeacherDto();
+        before.setId(7L);
+        before.setFirstName("John");
+        TeacherDto after = new TeacherDto();
+        after.setId(7L);
+        after.setFirstName("Jon");
+        when(teacherRepository.findAll(any(Sort.class))).thenReturn(List.of(teacher));
+        when(teacherMapper.toDto(anyList())).thenReturn(List.of(before)).thenReturn(List.of(after));
+        teacherDirectory.refresh();
+        String firstETag = teacherDirectory.snapshot().eTag();
+
+        // When
+        teacherDirectory.refresh();
+
+        // Then
+        assertThat(teacherDirectory.snapshot().eTag()).isNotEqualTo(firstETag);
+        assertThat(new String(teacherDirectory.snapshot().json(), StandardCharsets.UTF_8)).contains("\"firstName\":\"Jon\"");
+    }
+}
@@ -13,6 +13,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -25,6 +26,9 @@ class TeacherServiceTest {
     @Mock
     private TeacherRepository teacherRepository;
 
+    @Mock
+    private TeacherDirectory teacherDirectory;
+
     @InjectMocks
     private TeacherService teacherService;
 
@@ -54,7 +58,7 @@ class TeacherServiceTest {
                 .build();
         List<Teacher> teachers = Arrays.asList(teacher1, teacher2);
 
-        when(teacherRepository.findAll()).thenReturn(teachers);
+        when(teacherDirectory.snapshot()).thenReturn(snapshot(teachers));
 
         // When
         List<Teacher> result = teacherService.findAll();
@@ -68,13 +72,13 @@ class TeacherServiceTest {
         assertThat(result.get(1).getId()).isEqualTo(2L);
         assertThat(result.get(1).getFirstName()).isEqualTo("Jane");
         assertThat(result.get(1).getLastName()).isEqualTo("Smith");
-        verify(teacherRepository).findAll();
+        verifyNoInteractions(teacherRepository);
     }
 
     @Test
     void testFindAll_EmptyList() {
         // Given
-        when(teacherRepository.findAll()).thenReturn(Collections.emptyList());
+        when(teacherDirectory.snapshot()).thenReturn(snapshot(Collections.emptyList()));
 
         // When
         List<Teacher> result = teacherService.findAll();
@@ -82,14 +86,13 @@ class TeacherServiceTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result).isEmpty();
-        verify(teacherRepository).findAll();
     }
 
     @Test
     void testFindById_Success() {
         // Given
         Long teacherId = 1L;
-        when(teacherRepository.findById(teacherId)).thenReturn(Optional.of(testTeacher));
+        when(teacherDirectory.find(teacherId)).thenReturn(Optional.of(testTeacher));
 
         // When
         Teacher result = teacherService.findById(teacherId);
@@ -99,13 +102,28 @@ class TeacherServiceTest {
         assertThat(result.getId()).isEqualTo(teacherId);
         assertThat(result.getFirstName()).isEqualTo("John");
         assertThat(result.getLastName()).isEqualTo("Doe");
-        verify(teacherRepository).findById(teacherId);
+        verifyNoInteractions(teacherRepository);
+    }
+
+    @Test
+    void testFindById_NotYetInDirectory_ReadsTable() {
+        // Given
+        Long teacherId = 1L;
+        when(teacherDirectory.find(teacherId)).thenReturn(Optional.empty());
+        when(teacherRepository.findById(teacherId)).thenReturn(Optional.of(testTeacher));
+
+        // When
+        Teacher result = teacherService.findById(teacherId);
+
+        // Then
+        assertThat(result).isSameAs(testTeacher);
     }
 
     @Test
     void testFindById_NotFound() {
         // Given
         Long teacherId = 999L;
+        when(teacherDirectory.find(teacherId)).thenReturn(Optional.empty());
         when(teacherRepository.findById(teacherId)).thenReturn(Optional.empty());
 
         // When/Then
@@ -134,9 +152,9 @@ class TeacherServiceTest {
                 .lastName("Johnson")
                 .build();
 
-        when(teacherRepository.findById(1L)).thenReturn(Optional.of(teacher1));
-        when(teacherRepository.findById(2L)).thenReturn(Optional.of(teacher2));
-        when(teacherRepository.findById(3L)).thenReturn(Optional.of(teacher3));
+        when(teacherDirectory.find(1L)).thenReturn(Optional.of(teacher1));
+        when(teacherDirectory.find(2L)).thenReturn(Optional.of(teacher2));
+        when(teacherDirectory.find(3L)).thenReturn(Optional.of(teacher3));
 
         // When
         Teacher result1 = teacherService.findById(1L);
@@ -150,9 +168,13 @@ class TeacherServiceTest {
         assertThat(result2.getFirstName()).isEqualTo("Jane");
         assertThat(result3.getId()).isEqualTo(3L);
         assertThat(result3.getFirstName()).isEqualTo("Bob");
-        verify(teacherRepository).findById(1L);
-        verify(teacherRepository).findById(2L);
-        verify(teacherRepository).findById(3L);
+        verify(teacherDirectory).find(1L);
+        verify(teacherDirectory).find(2L);
+        verify(teacherDirectory).find(3L);
+        verifyNoInteractions(teacherRepository);
     }
-}
 
+    private static TeacherDirectory.Snapshot snapshot(List<Teacher> teachers) {
+        return new TeacherDirectory.Snapshot("1", Map.of(), teachers, new byte[0]);
+    }
+}
@@ -4,6 +4,9 @@ import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import com.openclassrooms.starterjwt.security.services.ActiveAccountCache;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,6 +14,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -24,6 +28,15 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ActiveAccountCache activeAccountCache;
+
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
     @InjectMocks
     private UserService userService;
 
@@ -59,6 +72,23 @@ class UserServiceTest {
         verify(userRepository).findById(userId);
     }
 
+    @Test
+    void testFindETag_ChangesWithUpdatedAt() {
+        // Given
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(userRepository.findUpdatedAtById(1L)).thenReturn(Optional.of(updatedAt), Optional.of(updatedAt.plusSeconds(1)));
+
+        // When
+        Optional<String> first = userService.findETag(1L);
+        Optional<String> second = userService.findETag(1L);
+
+        // Then
+        assertThat(first).isPresent();
+        assertThat(second).isPresent();
+        assertThat(first.get()).startsWith("user-1-").isNotEqualTo(second.get());
+        verify(userRepository, never()).findById(anyLong());
+    }
+
     @Test
     void testFindById_NotFound() {
         // Given
@@ -86,6 +116,9 @@ class UserServiceTest {
         // Then
         verify(userRepository).findById(userId);
         verify(userRepository).deleteById(userId);
+        verify(activeAccountCache).markDeleted(userId);
+        verify(tokenRevocationList).revokeUser(userId);
+        verify(userDetailsCache).invalidate("test@example.com");
     }
 
     @Test
@@ -101,6 +134,8 @@ class UserServiceTest {
                 .hasMessageContaining("Unauthorized");
         verify(userRepository).findById(userId);
         verify(userRepository, never()).deleteById(anyLong());
+        verify(activeAccountCache, never()).markDeleted(anyLong());
+        verify(tokenRevocationList, never()).revokeUser(anyLong());
     }
 
     @Test
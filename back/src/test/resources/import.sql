@@ -0,0 +1,2 @@
+-- Run by Hibernate after it creates the H2 schema; Flyway seeds this row on MySQL
+insert into collection_versions (name, version) values ('sessions', 0);
@@ -73,5 +73,27 @@ describe('AuthService', () => {
     expect(req.request.body).toEqual(loginRequest);
     req.flush(mockSessionInformation);
   });
-});
 
+  it('should exchange a refresh token only once for concurrent callers', () => {
+    const mockSessionInformation: SessionInformation = {
+      token: 'new-token',
+      type: 'Bearer',
+      id: 1,
+      username: 'test',
+      firstName: 'Test',
+      lastName: 'User',
+      admin: false,
+      refreshToken: 'refresh-2'
+    };
+    const responses: SessionInformation[] = [];
+
+    service.refresh('refresh-1').subscribe(response => responses.push(response));
+    service.refresh('refresh-1').subscribe(response => responses.push(response));
+
+    const req = httpMock.expectOne('/api/auth/refresh');
+    expect(req.request.method).toBe('POST');
+    expect(req.request.body).toEqual({ refreshToken: 'refresh-1' });
+    req.flush(mockSessionInformation);
+    expect(responses).toEqual([mockSessionInformation, mockSessionInformation]);
+  });
+});
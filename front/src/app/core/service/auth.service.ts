@@ -1,6 +1,6 @@
 import { HttpClient } from '@angular/common/http';
 import { Injectable } from '@angular/core';
-import { Observable } from 'rxjs';
+import { Observable, finalize, shareReplay } from 'rxjs';
 import { LoginRequest } from '../models/loginRequest.interface';
 import { RegisterRequest } from '../models/registerRequest.interface';
 import { SessionInformation } from 'src/app/core/models/sessionInformation.interface';
@@ -11,6 +11,7 @@ import { SessionInformation } from 'src/app/core/models/sessionInformation.inter
 export class AuthService {
 
   private pathService = '/api/auth';
+  private refreshing$: Observable<SessionInformation> | null = null;
 
   constructor(private httpClient: HttpClient) { }
 
@@ -21,4 +22,15 @@ export class AuthService {
   public login(loginRequest: LoginRequest): Observable<SessionInformation> {
     return this.httpClient.post<SessionInformation>(`${this.pathService}/login`, loginRequest);
   }
+
+  // Refresh tokens are single use: concurrent callers share the same exchange
+  public refresh(refreshToken: string): Observable<SessionInformation> {
+    if (!this.refreshing$) {
+      this.refreshing$ = this.httpClient.post<SessionInformation>(`${this.pathService}/refresh`, { refreshToken }).pipe(
+        finalize(() => this.refreshing$ = null),
+        shareReplay(1)
+      );
+    }
+    return this.refreshing$;
+  }
 }
@@ -47,6 +47,25 @@ describe('SessionApiService', () => {
     req.flush(mockSessions);
   });
 
+  it('should follow the cursor through every page', () => {
+    const first: Session = {
+      id: 1,
+      name: 'Yoga Session 1',
+      description: 'A relaxing yoga session',
+      date: new Date('2024-12-31'),
+      teacher_id: 1,
+      users: []
+    };
+    const second: Session = { ...first, id: 2, name: 'Yoga Session 2' };
+    let result: Session[] | undefined;
+
+    service.all().subscribe(sessions => result = sessions);
+
+    httpMock.expectOne('api/session').flush([first], { headers: { 'X-Next-Cursor': 'abc' } });
+    httpMock.expectOne('api/session?cursor=abc').flush([second]);
+    expect(result).toEqual([first, second]);
+  });
+
   it('should get session by id', () => {
     const mockSession: Session = {
       id: 1,
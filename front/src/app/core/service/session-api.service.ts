@@ -1,6 +1,6 @@
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams, HttpResponse } from '@angular/common/http';
 import { Injectable } from '@angular/core';
-import { Observable } from 'rxjs';
+import { EMPTY, Observable, expand, reduce } from 'rxjs';
 import { Session } from '../models/session.interface';
 
 @Injectable({
@@ -13,8 +13,15 @@ export class SessionApiService {
   constructor(private httpClient: HttpClient) {
   }
 
+  // The list is paginated: follow the cursor until the last page
   public all(): Observable<Session[]> {
-    return this.httpClient.get<Session[]>(this.pathService);
+    return this.page(null).pipe(
+      expand((response) => {
+        const cursor = response.headers.get('X-Next-Cursor');
+        return cursor ? this.page(cursor) : EMPTY;
+      }),
+      reduce((sessions: Session[], response) => sessions.concat(response.body ?? []), [])
+    );
   }
 
   public detail(id: string): Observable<Session> {
@@ -41,4 +48,8 @@ export class SessionApiService {
     return this.httpClient.delete<void>(`${this.pathService}/${id}/participate/${userId}`);
   }
 
+  private page(cursor: string | null): Observable<HttpResponse<Session[]>> {
+    const params = cursor ? new HttpParams().set('cursor', cursor) : new HttpParams();
+    return this.httpClient.get<Session[]>(this.pathService, { params, observe: 'response' });
+  }
 }
@@ -1,15 +1,18 @@
-import { HttpRequest, HttpEvent } from '@angular/common/http';
+import { HttpErrorResponse, HttpRequest, HttpEvent } from '@angular/common/http';
+import { HttpClientTestingModule } from '@angular/common/http/testing';
 import { runInInjectionContext } from '@angular/core';
 import { TestBed } from '@angular/core/testing';
 import { expect } from '@jest/globals';
-import { of } from 'rxjs';
+import { of, throwError } from 'rxjs';
 import { SessionInformation } from '../core/models/sessionInformation.interface';
+import { AuthService } from '../core/service/auth.service';
 import { SessionService } from '../core/service/session.service';
 
 import { customJwtInterceptorFn } from './customJwtInterceptorFn';
 
 describe('customJwtInterceptorFn', () => {
   let sessionService: SessionService;
+  let authService: AuthService;
   let injector: any;
 
   const mockSessionInformation: SessionInformation = {
@@ -24,9 +27,11 @@ describe('customJwtInterceptorFn', () => {
 
   beforeEach(() => {
     TestBed.configureTestingModule({
+      imports: [HttpClientTestingModule],
       providers: [SessionService]
     });
     sessionService = TestBed.inject(SessionService);
+    authService = TestBed.inject(AuthService);
     injector = TestBed;
   });
 
@@ -75,5 +80,43 @@ describe('customJwtInterceptorFn', () => {
       customJwtInterceptorFn(request, next).subscribe();
     });
   });
-});
 
+  it('should refresh the token and replay the request on 401', (done) => {
+    sessionService.logIn({ ...mockSessionInformation, refreshToken: 'refresh-1' });
+    jest.spyOn(authService, 'refresh').mockReturnValue(
+      of({ ...mockSessionInformation, token: 'new-token', refreshToken: 'refresh-2' }));
+
+    const request = new HttpRequest('GET', '/api/test');
+    const next = jest.fn((req: HttpRequest<unknown>) => req.headers.get('Authorization') === 'Bearer test-token'
+      ? throwError(() => new HttpErrorResponse({ status: 401 }))
+      : of({} as HttpEvent<unknown>));
+
+    runInInjectionContext(injector, () => {
+      customJwtInterceptorFn(request, next).subscribe(() => {
+        expect(authService.refresh).toHaveBeenCalledWith('refresh-1');
+        expect(next).toHaveBeenCalledTimes(2);
+        expect(next.mock.calls[1][0].headers.get('Authorization')).toBe('Bearer new-token');
+        expect(sessionService.sessionInformation!.refreshToken).toBe('refresh-2');
+        done();
+      });
+    });
+  });
+
+  it('should log out when the refresh fails', (done) => {
+    sessionService.logIn({ ...mockSessionInformation, refreshToken: 'refresh-1' });
+    jest.spyOn(authService, 'refresh').mockReturnValue(
+      throwError(() => new HttpErrorResponse({ status: 401 })));
+
+    const request = new HttpRequest('GET', '/api/test');
+    const next = () => throwError(() => new HttpErrorResponse({ status: 401 }));
+
+    runInInjectionContext(injector, () => {
+      customJwtInterceptorFn(request, next).subscribe({
+        error: () => {
+          expect(sessionService.isLogged).toBe(false);
+          done();
+        }
+      });
+    });
+  });
+});
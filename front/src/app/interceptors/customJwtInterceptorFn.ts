@@ -1,16 +1,46 @@
-import { HttpEvent, HttpHandlerFn, HttpRequest } from "@angular/common/http";
-import { Observable } from "rxjs";
+import { HttpErrorResponse, HttpEvent, HttpHandlerFn, HttpRequest } from "@angular/common/http";
+import { Observable, catchError, switchMap, throwError } from "rxjs";
 import { SessionService } from "../core/service/session.service";
+import { AuthService } from "../core/service/auth.service";
 import { inject } from "@angular/core";
 
 export function customJwtInterceptorFn(request: HttpRequest<unknown>, next: HttpHandlerFn): Observable<HttpEvent<unknown>> {
   const sessionService = inject(SessionService);
-  if (sessionService.isLogged) {
-    request = request.clone({
-      setHeaders: {
-        Authorization: `Bearer ${sessionService.sessionInformation!.token}`,
-      },
-    });
+  const authService = inject(AuthService);
+  const sentToken = sessionService.sessionInformation?.token;
+  return next(withToken(request, sessionService)).pipe(
+    catchError((error: unknown) => {
+      // Access tokens are short-lived: exchange the refresh token once, then replay the request
+      const refreshToken = sessionService.sessionInformation?.refreshToken;
+      if (!(error instanceof HttpErrorResponse) || error.status !== 401 || !refreshToken
+        || request.url.startsWith('/api/auth')) {
+        return throwError(() => error);
+      }
+      if (sessionService.sessionInformation!.token !== sentToken) {
+        // Another request has refreshed the token meanwhile
+        return next(withToken(request, sessionService));
+      }
+      return authService.refresh(refreshToken).pipe(
+        catchError((refreshError: unknown) => {
+          sessionService.logOut();
+          return throwError(() => refreshError);
+        }),
+        switchMap((sessionInformation) => {
+          sessionService.logIn(sessionInformation);
+          return next(withToken(request, sessionService));
+        })
+      );
+    })
+  );
+}
+
+function withToken(request: HttpRequest<unknown>, sessionService: SessionService): HttpRequest<unknown> {
+  if (!sessionService.isLogged) {
+    return request;
   }
-  return next(request);
+  return request.clone({
+    setHeaders: {
+      Authorization: `Bearer ${sessionService.sessionInformation!.token}`,
+    },
+  });
 }